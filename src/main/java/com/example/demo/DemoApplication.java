@@ -1,12 +1,34 @@
 
 package com.example.demo;
 
+import com.example.demo.repo.FakeRepo;
+import com.example.demo.service.UserServiceImpl;
+import com.example.demo.tcp.UserTcpServer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Lazy;
 
 @SpringBootApplication
 public class DemoApplication {
     public static void main(String[] args) {
         SpringApplication.run(DemoApplication.class, args);
     }
-}
\ No newline at end of file
+
+    /**
+     * Optional binary TCP API next to the REST one, enabled with {@code app.tcp.enabled=true}.
+     * Never lazy: nothing else asks for this bean, so it would otherwise not start at all.
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @Lazy(false)
+    @ConditionalOnProperty(name = "app.tcp.enabled", havingValue = "true")
+    public UserTcpServer userTcpServer(FakeRepo fakeRepo, UserServiceImpl userService,
+                                       @Value("${app.tcp.address:127.0.0.1}") String address,
+                                       @Value("${app.tcp.port:9090}") int port,
+                                       @Value("${app.tcp.buffer-size:65536}") int bufferSize,
+                                       @Value("${app.tcp.max-connections:1000}") int maxConnections) {
+        return new UserTcpServer(fakeRepo, userService, address, port, bufferSize, maxConnections);
+    }
+}
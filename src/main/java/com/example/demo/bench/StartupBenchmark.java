@@ -0,0 +1,62 @@
+package com.example.demo.bench;
+
+import com.example.demo.DemoApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * StartupBenchmark measures how long it takes from JVM start until the first
+ * successful GET /api/users/{id}. Run it in a fresh JVM for each measurement:
+ *
+ *   ./gradlew startupBenchmark
+ *   ./gradlew startupBenchmark -PbenchArgs=--spring.profiles.active=fast-start
+ *
+ * Any arguments are passed straight through to Spring.
+ */
+public class StartupBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+        List<String> springArgs = new ArrayList<>(Arrays.asList(args));
+        springArgs.add("--server.port=0");
+        springArgs.add("--app.cli.enabled=false");
+
+        ConfigurableApplicationContext context =
+                SpringApplication.run(DemoApplication.class, springArgs.toArray(new String[0]));
+        long contextReady = System.currentTimeMillis();
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        String baseUrl = "http://localhost:" + port + "/api/users";
+        HttpClient client = HttpClient.newHttpClient();
+
+        // Ids start at 1, so the first user we add can be fetched back with GET /api/users/1
+        HttpRequest add = HttpRequest.newBuilder(URI.create(baseUrl + "?name=Bench&surname=User"))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        client.send(add, HttpResponse.BodyHandlers.discarding());
+
+        HttpRequest get = HttpRequest.newBuilder(URI.create(baseUrl + "/1")).GET().build();
+        int status = client.send(get, HttpResponse.BodyHandlers.discarding()).statusCode();
+        long firstGet = System.currentTimeMillis();
+
+        System.out.println("Startup benchmark (" + (args.length == 0 ? "default" : String.join(" ", args)) + ")");
+        System.out.println("  Context ready:          " + (contextReady - jvmStart) + " ms after JVM start");
+        System.out.println("  First GET /api/users/1: " + (firstGet - jvmStart) + " ms after JVM start (HTTP " + status + ")");
+
+        SpringApplication.exit(context);
+        if (status != 200) {
+            System.exit(1);
+        }
+    }
+}
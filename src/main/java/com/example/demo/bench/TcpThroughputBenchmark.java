@@ -0,0 +1,75 @@
+package com.example.demo.bench;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.tcp.UserTcpClient;
+import com.example.demo.tcp.UserTcpServer;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+/**
+ * TcpThroughputBenchmark compares lookups per second over REST (GET /api/users/{id}),
+ * over the binary TCP protocol one request at a time, and over TCP with pipelining.
+ * All three run on one client thread against the same users.
+ *
+ *   ./gradlew tcpBenchmark
+ */
+public class TcpThroughputBenchmark {
+    private static final int USERS = 1000;
+    private static final int LOOKUPS = 20000;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        ConfigurableApplicationContext context = SpringApplication.run(DemoApplication.class,
+                "--server.port=0", "--app.cli.enabled=false", "--app.tcp.enabled=true", "--app.tcp.port=0");
+        int httpPort = ((WebServerApplicationContext) context).getWebServer().getPort();
+        int tcpPort = context.getBean(UserTcpServer.class).getPort();
+
+        HttpClient http = HttpClient.newHttpClient();
+        try (UserTcpClient tcp = new UserTcpClient("localhost", tcpPort)) {
+            long[] ids = new long[LOOKUPS];
+            long[] userIds = new long[USERS];
+            for (int i = 0; i < USERS; i++) {
+                userIds[i] = tcp.addUser("Name" + i, "Surname" + i);
+            }
+            for (int i = 0; i < LOOKUPS; i++) {
+                ids[i] = userIds[i % USERS];
+            }
+
+            // Later rounds run on warmed-up code; the last round is the one to compare
+            for (int round = 1; round <= ROUNDS; round++) {
+                System.out.println("Round " + round + " (" + LOOKUPS + " lookups)");
+
+                long start = System.nanoTime();
+                for (long id : ids) {
+                    HttpRequest get = HttpRequest.newBuilder(
+                            URI.create("http://localhost:" + httpPort + "/api/users/" + id)).GET().build();
+                    http.send(get, HttpResponse.BodyHandlers.ofString());
+                }
+                report("REST GET /api/users/{id}", start);
+
+                start = System.nanoTime();
+                for (long id : ids) {
+                    tcp.getUser(id);
+                }
+                report("TCP, one at a time", start);
+
+                start = System.nanoTime();
+                tcp.getUsers(ids);
+                report("TCP, pipelined", start);
+            }
+        } finally {
+            SpringApplication.exit(context);
+        }
+    }
+
+    private static void report(String label, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        System.out.printf("  %-26s %10.0f ops/s%n", label, LOOKUPS / seconds);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.bench;
+
+import com.example.demo.DemoApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * WarmupBenchmark measures the latency spike right after startup: it times the first
+ * GET /api/users/{id} requests a freshly started application serves. Run it once without
+ * and once with warm-up, each in a fresh JVM, and compare:
+ *
+ *   ./gradlew warmupBenchmark
+ *   ./gradlew warmupBenchmark -PbenchArgs=--app.warmup.enabled=true
+ *
+ * Any arguments are passed straight through to Spring.
+ */
+public class WarmupBenchmark {
+    private static final int USERS = 100;
+    private static final int REQUESTS = 2000;
+
+    public static void main(String[] args) throws Exception {
+        List<String> springArgs = new ArrayList<>(Arrays.asList(args));
+        springArgs.add("--server.port=0");
+        springArgs.add("--app.cli.enabled=false");
+
+        ConfigurableApplicationContext context =
+                SpringApplication.run(DemoApplication.class, springArgs.toArray(new String[0]));
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        String baseUrl = "http://localhost:" + port + "/api/users";
+        HttpClient client = HttpClient.newHttpClient();
+
+        for (int i = 0; i < USERS; i++) {
+            HttpRequest add = HttpRequest.newBuilder(URI.create(baseUrl + "?name=Bench" + i + "&surname=User"))
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build();
+            client.send(add, HttpResponse.BodyHandlers.discarding());
+        }
+
+        long[] latencies = new long[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            HttpRequest get = HttpRequest.newBuilder(URI.create(baseUrl + "/" + (1 + i % USERS))).GET().build();
+            long start = System.nanoTime();
+            client.send(get, HttpResponse.BodyHandlers.ofString());
+            latencies[i] = System.nanoTime() - start;
+        }
+
+        System.out.println("Warm-up benchmark (" + (args.length == 0 ? "default" : String.join(" ", args)) + ")");
+        report("First 100 requests", Arrays.copyOfRange(latencies, 0, 100));
+        report("First " + REQUESTS + " requests", latencies);
+        report("Last 500 requests", Arrays.copyOfRange(latencies, REQUESTS - 500, REQUESTS));
+
+        SpringApplication.exit(context);
+    }
+
+    private static void report(String label, long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        System.out.printf("  %-20s p50 %6d us   p99 %6d us   max %6d us%n", label,
+                sorted[sorted.length / 2] / 1000,
+                sorted[(int) Math.ceil(sorted.length * 0.99) - 1] / 1000,
+                sorted[sorted.length - 1] / 1000);
+    }
+}
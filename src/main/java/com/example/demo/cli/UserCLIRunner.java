@@ -4,18 +4,22 @@ import com.example.demo.service.UserService;
 import com.example.demo.service.UserServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import java.util.Scanner;
 
 /**
  * UserCLIRunner is responsible for running the User Management System CLI.
+ * It can be switched off with {@code app.cli.enabled=false} (the fast-start profile does this)
+ * so that server-only nodes don't block the main thread waiting on stdin.
  */
 @Component
+@ConditionalOnProperty(name = "app.cli.enabled", havingValue = "true", matchIfMissing = true)
 public class UserCLIRunner implements CommandLineRunner {
 
     private final UserService userService;
-    private final Scanner scanner = new Scanner(System.in);
+    private Scanner scanner;
     private boolean running = true;
 
     @Autowired
@@ -25,6 +29,7 @@ public class UserCLIRunner implements CommandLineRunner {
 
     @Override
     public void run(String... args) {
+        scanner = new Scanner(System.in); // Created here rather than at bean construction
         System.out.println("Welcome to User Management System");
         System.out.println("Available commands:");
         printHelp();
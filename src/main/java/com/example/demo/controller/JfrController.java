@@ -0,0 +1,62 @@
+package com.example.demo.controller;
+
+import com.example.demo.jfr.JfrRecordingManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/jfr")
+public class JfrController {
+    private final JfrRecordingManager recordingManager;
+
+    @Autowired
+    public JfrController(JfrRecordingManager recordingManager) {
+        this.recordingManager = recordingManager;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> status() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("recording", recordingManager.isRecording());
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/start")
+    public ResponseEntity<Map<String, Object>> start() {
+        Map<String, Object> response = new HashMap<>();
+
+        if (!recordingManager.start()) {
+            response.put("error", "A recording is already running");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+
+        response.put("message", "Recording started");
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/stop")
+    public ResponseEntity<Map<String, Object>> stop() {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            Path file = recordingManager.stop();
+            if (file == null) {
+                response.put("error", "No recording is running");
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+            }
+            response.put("message", "Recording stopped");
+            response.put("file", file.toString());
+            return ResponseEntity.ok(response);
+        } catch (IOException e) {
+            response.put("error", "Could not write recording: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+}
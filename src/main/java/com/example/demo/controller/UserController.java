@@ -1,8 +1,13 @@
 
 package com.example.demo.controller;
 
+import com.example.demo.model.BulkMutation;
 import com.example.demo.model.User;
+import com.example.demo.model.UserOperation;
+import com.example.demo.repo.BatchingUserLookup;
 import com.example.demo.repo.FakeRepo;
+import com.example.demo.repo.TransactionResult;
+import com.example.demo.repo.UserStatistics;
 import com.example.demo.service.UserService;
 import com.example.demo.service.UserServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,23 +15,28 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
 
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
+    private static final int MAX_LOOKUP_IDS = 1000;
+    private static final int MAX_TRANSACTION_OPERATIONS = 1000;
+    private static final int MAX_TOP_SURNAMES = 100;
+
     private final UserService userService;
     private final FakeRepo fakeRepo;
+    private final BatchingUserLookup userLookup;
     private boolean running = true;
-    private final Scanner scanner = new Scanner(System.in);
 
     @Autowired
-    public UserController(UserService userService, FakeRepo fakeRepo) {
+    public UserController(UserService userService, FakeRepo fakeRepo, BatchingUserLookup userLookup) {
         this.userService = userService;
         this.fakeRepo = fakeRepo;
+        this.userLookup = userLookup;
     }
 
     @PostMapping
@@ -43,11 +53,32 @@ public class UserController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStatistics(
+            @RequestParam(defaultValue = "10") int top,
+            @RequestParam(required = false) String surname) {
+        Map<String, Object> response = new HashMap<>();
+
+        if (top < 0 || top > MAX_TOP_SURNAMES) {
+            response.put("error", "top must be between 0 and " + MAX_TOP_SURNAMES);
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        UserStatistics statistics = fakeRepo.getStatistics();
+        response.put("totalUsers", statistics.totalUsers());
+        response.put("topSurnames", statistics.topSurnames(top));
+        response.put("usersByInitial", statistics.countsByInitial());
+        if (surname != null) {
+            response.put("surnameCount", statistics.countBySurname(surname));
+        }
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Map<String, Object>> getUser(@PathVariable long id) {
         Map<String, Object> response = new HashMap<>();
         
-        String result = fakeRepo.findUserById(id);
+        String result = userLookup.findUserById(id);
         if (result.equals("User not found")) {
             response.put("error", "User not found with ID: " + id);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
@@ -57,6 +88,37 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping(params = "ids")
+    public ResponseEntity<Map<String, Object>> getUsers(@RequestParam long[] ids) {
+        return lookupUsers(ids);
+    }
+
+    @PostMapping("/lookup")
+    public ResponseEntity<Map<String, Object>> lookupUsers(@RequestBody long[] ids) {
+        Map<String, Object> response = new HashMap<>();
+
+        if (ids == null || ids.length == 0) {
+            response.put("error", "At least one ID is required");
+            return ResponseEntity.badRequest().body(response);
+        }
+        if (ids.length > MAX_LOOKUP_IDS) {
+            response.put("error", "Cannot look up more than " + MAX_LOOKUP_IDS + " IDs at once");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        Map<Long, String> found = fakeRepo.findUsersByIds(ids);
+        List<Long> notFound = new ArrayList<>();
+        for (long id : ids) {
+            if (!found.containsKey(id)) {
+                notFound.add(id);
+            }
+        }
+
+        response.put("users", found);
+        response.put("notFound", notFound);
+        return ResponseEntity.ok(response);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Map<String, Object>> removeUser(@PathVariable long id) {
         Map<String, Object> response = new HashMap<>();
@@ -99,6 +161,77 @@ public class UserController {
         }
     }
 
+    @PostMapping("/tx")
+    public ResponseEntity<Map<String, Object>> applyTransaction(@RequestBody List<UserOperation> operations) {
+        Map<String, Object> response = new HashMap<>();
+
+        if (operations == null || operations.isEmpty()) {
+            response.put("error", "At least one operation is required");
+            return ResponseEntity.badRequest().body(response);
+        }
+        if (operations.size() > MAX_TRANSACTION_OPERATIONS) {
+            response.put("error", "Cannot apply more than " + MAX_TRANSACTION_OPERATIONS + " operations at once");
+            return ResponseEntity.badRequest().body(response);
+        }
+        for (UserOperation operation : operations) {
+            // IDs come from the same counter as addUser; one picked by the client could collide
+            if (operation.getType() == UserOperation.Type.INSERT && operation.getId() != 0) {
+                response.put("error", "INSERT operations must not set an id, one is generated");
+                return ResponseEntity.badRequest().body(response);
+            }
+            if ((operation.getType() == UserOperation.Type.INSERT || operation.getType() == UserOperation.Type.EDIT)
+                    && (isBlank(operation.getName()) || isBlank(operation.getSurname()))) {
+                response.put("error", "Name and surname cannot be empty");
+                return ResponseEntity.badRequest().body(response);
+            }
+        }
+
+        TransactionResult result = userService.applyTransaction(operations);
+        if (!result.isCommitted()) {
+            response.put("error", result.getMessage());
+            response.put("failedOperation", result.getFailedOperation());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+
+        response.put("message", result.getMessage());
+        response.put("results", result.getResults());
+        response.put("operations", operations);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/bulk-mutate")
+    public ResponseEntity<Map<String, Object>> bulkMutate(@RequestBody BulkMutation mutation) {
+        Map<String, Object> response = new HashMap<>();
+
+        if (mutation.getFilter() == null || !mutation.getFilter().hasCriteria()) {
+            response.put("error", "A filter on name and/or surname is required");
+            return ResponseEntity.badRequest().body(response);
+        }
+        if (mutation.getAction() == null) {
+            response.put("error", "Action must be DELETE or SET");
+            return ResponseEntity.badRequest().body(response);
+        }
+        if (mutation.getAction() == BulkMutation.Action.SET) {
+            boolean hasName = mutation.getName() != null && !mutation.getName().trim().isEmpty();
+            boolean hasSurname = mutation.getSurname() != null && !mutation.getSurname().trim().isEmpty();
+            if ((!hasName && !hasSurname) || (mutation.getName() != null && !hasName)
+                    || (mutation.getSurname() != null && !hasSurname)) {
+                response.put("error", "SET needs a non-empty name and/or surname");
+                return ResponseEntity.badRequest().body(response);
+            }
+        }
+
+        try {
+            long affected = fakeRepo.bulkMutate(mutation);
+            response.put("affected", affected);
+            response.put("message", affected + " users updated");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
     public void printUserDetails(long id) {
         if (id <= 0) {
             System.out.println("Error: Invalid ID");
@@ -198,4 +331,8 @@ public class UserController {
         System.out.println("  exit - Exit the application");
         System.out.print("> ");
     }
-}
\ No newline at end of file
+
+    private boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
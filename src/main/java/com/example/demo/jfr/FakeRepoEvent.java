@@ -0,0 +1,17 @@
+package com.example.demo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name("com.example.demo.FakeRepo")
+@Label("FakeRepo Call")
+@Category({"User Demo", "Repository"})
+@Description("Call into FakeRepo")
+@Enabled(false)
+@Threshold("0 ms")
+public class FakeRepoEvent extends LayerEvent {
+}
@@ -0,0 +1,33 @@
+package com.example.demo.jfr;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Jackson converter that emits a {@link SerializationEvent} around each response body it writes.
+ */
+public class JfrJacksonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public JfrJacksonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
+        String outcome = "ERROR";
+        try {
+            super.writeInternal(object, type, outputMessage);
+            outcome = "OK";
+        } finally {
+            event.finish(object.getClass().getSimpleName(), 0, outcome);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.demo.jfr;
+
+import jdk.jfr.Recording;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Starts and stops an in-process Flight Recorder recording of the user demo events and
+ * dumps it to a file under {@code app.jfr.dump-dir}.
+ *
+ * Each layer has its own threshold, so a recording can for example keep every slow
+ * request but only repository calls that took longer than a millisecond.
+ *
+ * A recording that is never stopped keeps only its newest data, at most
+ * {@code app.jfr.max-size-mb} and {@code app.jfr.max-age-minutes}, so it can't fill the disk.
+ */
+@Component
+public class JfrRecordingManager {
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Path dumpDir;
+    private final long requestThresholdMs;
+    private final long serviceThresholdMs;
+    private final long repoThresholdMs;
+    private final long serializationThresholdMs;
+    private final long maxSizeBytes;
+    private final Duration maxAge;
+
+    private Recording recording;
+
+    public JfrRecordingManager(@Value("${app.jfr.dump-dir:jfr}") String dumpDir,
+                               @Value("${app.jfr.threshold.request-ms:0}") long requestThresholdMs,
+                               @Value("${app.jfr.threshold.service-ms:0}") long serviceThresholdMs,
+                               @Value("${app.jfr.threshold.repo-ms:0}") long repoThresholdMs,
+                               @Value("${app.jfr.threshold.serialization-ms:0}") long serializationThresholdMs,
+                               @Value("${app.jfr.max-size-mb:100}") long maxSizeMb,
+                               @Value("${app.jfr.max-age-minutes:30}") long maxAgeMinutes) {
+        this.dumpDir = Paths.get(dumpDir);
+        this.requestThresholdMs = requestThresholdMs;
+        this.serviceThresholdMs = serviceThresholdMs;
+        this.repoThresholdMs = repoThresholdMs;
+        this.serializationThresholdMs = serializationThresholdMs;
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+        this.maxAge = Duration.ofMinutes(maxAgeMinutes);
+    }
+
+    public synchronized boolean isRecording() {
+        return recording != null;
+    }
+
+    /**
+     * Starts a recording. Returns false if one is already running.
+     */
+    public synchronized boolean start() {
+        if (recording != null) {
+            return false;
+        }
+
+        Recording newRecording = new Recording();
+        newRecording.setName("user-demo");
+        // Older chunks are dropped once either limit is reached
+        newRecording.setToDisk(true);
+        newRecording.setMaxSize(maxSizeBytes);
+        newRecording.setMaxAge(maxAge);
+        newRecording.enable(UserRequestEvent.class).withThreshold(Duration.ofMillis(requestThresholdMs));
+        newRecording.enable(UserServiceEvent.class).withThreshold(Duration.ofMillis(serviceThresholdMs));
+        newRecording.enable(FakeRepoEvent.class).withThreshold(Duration.ofMillis(repoThresholdMs));
+        newRecording.enable(SerializationEvent.class).withThreshold(Duration.ofMillis(serializationThresholdMs));
+        newRecording.start();
+        recording = newRecording;
+        return true;
+    }
+
+    /**
+     * Stops the running recording and writes it to a new file in the dump directory.
+     * Returns the file, or null if nothing was recording.
+     */
+    public synchronized Path stop() throws IOException {
+        if (recording == null) {
+            return null;
+        }
+
+        try {
+            recording.stop();
+            Files.createDirectories(dumpDir);
+            Path file = dumpDir.resolve("user-demo-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".jfr");
+            recording.dump(file);
+            return file.toAbsolutePath();
+        } finally {
+            recording.close();
+            recording = null;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.jfr;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jdk.jfr.EventType;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Emits a {@link UserRequestEvent} for each request. Nothing is allocated unless a
+ * recording has the event enabled.
+ */
+public class JfrRequestInterceptor implements HandlerInterceptor {
+    private static final String EVENT_ATTRIBUTE = JfrRequestInterceptor.class.getName() + ".event";
+    private static final EventType EVENT_TYPE = EventType.getEventType(UserRequestEvent.class);
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (EVENT_TYPE.isEnabled()) {
+            UserRequestEvent event = new UserRequestEvent();
+            event.begin();
+            request.setAttribute(EVENT_ATTRIBUTE, event);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object attribute = request.getAttribute(EVENT_ATTRIBUTE);
+        if (!(attribute instanceof UserRequestEvent)) {
+            return;
+        }
+
+        int status = ex != null && response.getStatus() < 400 ? 500 : response.getStatus();
+        ((UserRequestEvent) attribute).finish(request.getMethod(), request.getRequestURI(), userId(request), status);
+    }
+
+    private long userId(HttpServletRequest request) {
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables instanceof Map) {
+            Object id = ((Map<?, ?>) variables).get("id");
+            if (id != null) {
+                try {
+                    return Long.parseLong(id.toString());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.jfr;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Hooks the Flight Recorder events into Spring MVC: one event per request to /api/users
+ * and one per JSON response body written.
+ */
+@Configuration
+public class JfrWebConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new JfrRequestInterceptor()).addPathPatterns("/api/users/**", "/api/users");
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        for (int i = 0; i < converters.size(); i++) {
+            HttpMessageConverter<?> converter = converters.get(i);
+            if (converter.getClass() == MappingJackson2HttpMessageConverter.class) {
+                converters.set(i, new JfrJacksonHttpMessageConverter(
+                        ((MappingJackson2HttpMessageConverter) converter).getObjectMapper()));
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.jfr;
+
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Base class for the per-layer Flight Recorder events.
+ *
+ * Usage is always {@code begin()} followed by {@link #finish}. When no recording has the
+ * event enabled, begin/end/shouldCommit are no-ops and the JIT removes the allocation, so
+ * the instrumented code costs next to nothing. Fields are only filled in for events that
+ * pass the threshold.
+ */
+public abstract class LayerEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("User ID")
+    long userId;
+
+    @Label("Outcome")
+    String outcome;
+
+    public void finish(String operation, long userId, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.userId = userId;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name("com.example.demo.Serialization")
+@Label("Response Serialization")
+@Category({"User Demo", "Serialization"})
+@Description("Writing a response body as JSON")
+@Enabled(false)
+@Threshold("0 ms")
+public class SerializationEvent extends LayerEvent {
+}
@@ -0,0 +1,43 @@
+package com.example.demo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Covers a whole HTTP request to /api/users, from the handler being picked until the
+ * response is written. The service, repository and serialization events nested inside it
+ * show where the time went; whatever is left over was spent in the controller itself.
+ */
+@Name("com.example.demo.UserRequest")
+@Label("User Request")
+@Category({"User Demo", "Controller"})
+@Description("HTTP request handled by UserController")
+@Enabled(false)
+@Threshold("0 ms")
+public class UserRequestEvent extends LayerEvent {
+    @Label("HTTP Method")
+    String method;
+
+    @Label("Path")
+    String path;
+
+    @Label("HTTP Status")
+    int status;
+
+    public void finish(String method, String path, long userId, int status) {
+        end();
+        if (shouldCommit()) {
+            this.method = method;
+            this.path = path;
+            this.status = status;
+            this.operation = method + " " + path;
+            this.userId = userId;
+            this.outcome = status < 400 ? "OK" : "HTTP_" + status;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name("com.example.demo.UserService")
+@Label("UserService Call")
+@Category({"User Demo", "Service"})
+@Description("Call into UserServiceImpl")
+@Enabled(false)
+@Threshold("0 ms")
+public class UserServiceEvent extends LayerEvent {
+}
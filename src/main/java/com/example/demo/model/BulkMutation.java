@@ -0,0 +1,76 @@
+package com.example.demo.model;
+
+/**
+ * A change applied to every user matching a filter: delete them, or set their name
+ * and/or surname. For SET, a null name or surname leaves that field as it is.
+ */
+public class BulkMutation {
+    public enum Action {
+        DELETE, SET
+    }
+
+    private UserFilter filter;
+    private Action action;
+    private String name;
+    private String surname;
+
+    public BulkMutation() {
+    }
+
+    public BulkMutation(UserFilter filter, Action action, String name, String surname) {
+        this.filter = filter;
+        this.action = action;
+        this.name = name;
+        this.surname = surname;
+    }
+
+    public static BulkMutation delete(UserFilter filter) {
+        return new BulkMutation(filter, Action.DELETE, null, null);
+    }
+
+    public static BulkMutation set(UserFilter filter, String name, String surname) {
+        return new BulkMutation(filter, Action.SET, name, surname);
+    }
+
+    public UserFilter getFilter() {
+        return filter;
+    }
+
+    public void setFilter(UserFilter filter) {
+        this.filter = filter;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public void setAction(Action action) {
+        this.action = action;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getSurname() {
+        return surname;
+    }
+
+    public void setSurname(String surname) {
+        this.surname = surname;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkMutation{" +
+                "filter=" + filter +
+                ", action=" + action +
+                ", name='" + name + '\'' +
+                ", surname='" + surname + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.model;
+
+/**
+ * Selects users by name and/or surname. A criterion left null matches every user.
+ */
+public class UserFilter {
+    private String name;
+    private String surname;
+    private boolean ignoreCase;
+
+    public UserFilter() {
+    }
+
+    public UserFilter(String name, String surname, boolean ignoreCase) {
+        this.name = name;
+        this.surname = surname;
+        this.ignoreCase = ignoreCase;
+    }
+
+    public boolean matches(String userName, String userSurname) {
+        return fieldMatches(name, userName) && fieldMatches(surname, userSurname);
+    }
+
+    public boolean hasCriteria() {
+        return name != null || surname != null;
+    }
+
+    private boolean fieldMatches(String expected, String actual) {
+        if (expected == null) {
+            return true;
+        }
+        return ignoreCase ? expected.equalsIgnoreCase(actual) : expected.equals(actual);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getSurname() {
+        return surname;
+    }
+
+    public void setSurname(String surname) {
+        this.surname = surname;
+    }
+
+    public boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    public void setIgnoreCase(boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+    }
+
+    @Override
+    public String toString() {
+        return "UserFilter{" +
+                "name='" + name + '\'' +
+                ", surname='" + surname + '\'' +
+                ", ignoreCase=" + ignoreCase +
+                '}';
+    }
+}
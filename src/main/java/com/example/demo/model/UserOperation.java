@@ -0,0 +1,79 @@
+package com.example.demo.model;
+
+/**
+ * One step of a multi-operation transaction: insert, edit or delete a user.
+ */
+public class UserOperation {
+    public enum Type {
+        INSERT, EDIT, DELETE
+    }
+
+    private Type type;
+    private long id;
+    private String name;
+    private String surname;
+
+    public UserOperation() {
+    }
+
+    public UserOperation(Type type, long id, String name, String surname) {
+        this.type = type;
+        this.id = id;
+        this.name = name;
+        this.surname = surname;
+    }
+
+    public static UserOperation insert(long id, String name, String surname) {
+        return new UserOperation(Type.INSERT, id, name, surname);
+    }
+
+    public static UserOperation edit(long id, String name, String surname) {
+        return new UserOperation(Type.EDIT, id, name, surname);
+    }
+
+    public static UserOperation delete(long id) {
+        return new UserOperation(Type.DELETE, id, null, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getSurname() {
+        return surname;
+    }
+
+    public void setSurname(String surname) {
+        this.surname = surname;
+    }
+
+    @Override
+    public String toString() {
+        return "UserOperation{" +
+                "type=" + type +
+                ", id=" + id +
+                ", name='" + name + '\'' +
+                ", surname='" + surname + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.demo.repo;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * BatchingUserLookup coalesces concurrent single-id lookups into calls to
+ * {@link FakeRepoInterface#findUsersByIds(long[])}, in the style of a DataLoader.
+ * Lookups that arrive while a batch is being resolved are queued and sent together
+ * in the next batch.
+ *
+ * Batching is off by default because the in-memory FakeRepo is faster to call directly;
+ * turn it on with {@code app.lookup.batching.enabled=true} for slower backends.
+ */
+@Component
+public class BatchingUserLookup {
+    private final FakeRepoInterface fakeRepo;
+    private final boolean enabled;
+    private final int maxBatchSize;
+
+    private final ConcurrentLinkedQueue<PendingLookup> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean dispatchScheduled = new AtomicBoolean(false);
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-lookup-batcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public BatchingUserLookup(FakeRepoInterface fakeRepo,
+                              @Value("${app.lookup.batching.enabled:false}") boolean enabled,
+                              @Value("${app.lookup.batching.max-batch-size:200}") int maxBatchSize) {
+        this.fakeRepo = fakeRepo;
+        this.enabled = enabled;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+    }
+
+    /**
+     * Same contract as {@link FakeRepoInterface#findUserById(long)}: returns the full name,
+     * or "User not found".
+     */
+    public String findUserById(long id) {
+        if (!enabled) {
+            return fakeRepo.findUserById(id);
+        }
+
+        CompletableFuture<String> result = new CompletableFuture<>();
+        pending.add(new PendingLookup(id, result));
+        if (dispatchScheduled.compareAndSet(false, true)) {
+            try {
+                dispatcher.execute(this::dispatch);
+            } catch (RejectedExecutionException e) {
+                dispatch(); // Shutting down: resolve on the caller's thread instead
+            }
+        }
+
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Stops the dispatcher thread once the lookups already queued have been resolved.
+     */
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdown();
+    }
+
+    // Visible for tests
+    int pendingLookups() {
+        return pending.size();
+    }
+
+    private void dispatch() {
+        // Cleared before draining so a lookup queued after the final poll schedules a new dispatch
+        dispatchScheduled.set(false);
+
+        List<PendingLookup> batch = new ArrayList<>(maxBatchSize);
+        PendingLookup next;
+        while ((next = pending.poll()) != null) {
+            batch.add(next);
+            if (batch.size() == maxBatchSize) {
+                resolve(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            resolve(batch);
+        }
+    }
+
+    private void resolve(List<PendingLookup> batch) {
+        long[] ids = new long[batch.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = batch.get(i).id;
+        }
+
+        try {
+            Map<Long, String> found = fakeRepo.findUsersByIds(ids);
+            for (PendingLookup lookup : batch) {
+                lookup.result.complete(found.getOrDefault(lookup.id, "User not found"));
+            }
+        } catch (RuntimeException e) {
+            for (PendingLookup lookup : batch) {
+                lookup.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static final class PendingLookup {
+        private final long id;
+        private final CompletableFuture<String> result;
+
+        private PendingLookup(long id, CompletableFuture<String> result) {
+            this.id = id;
+            this.result = result;
+        }
+    }
+}
@@ -1,52 +1,499 @@
 
 package com.example.demo.repo;
 
+import com.example.demo.jfr.FakeRepoEvent;
+import com.example.demo.model.BulkMutation;
 import com.example.demo.model.User;
+import com.example.demo.model.UserFilter;
+import com.example.demo.model.UserOperation;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * In-memory user store with multi-version concurrency control.
+ *
+ * Every user is a chain of immutable {@link UserVersion}s, newest first. Writers take the
+ * commit lock, add new versions stamped with the next commit timestamp and then publish that
+ * timestamp; readers pick the latest published timestamp and ignore anything newer, so they
+ * see a consistent state without ever taking the lock. Versions that no open snapshot can
+ * see any more are dropped after each commit and whenever the oldest snapshot is closed.
+ */
 @Repository
 public class FakeRepo implements FakeRepoInterface {
-    private final ConcurrentHashMap<Long, User> users = new ConcurrentHashMap<>();
+    // Bulk mutations split the table into chunks of about this many users per matching task
+    private static final long BULK_PARALLELISM_THRESHOLD = 1024;
+
+    // Bulk mutations change at most this many users per commit before letting other writers in
+    private static final int BULK_COMMIT_BATCH = 64;
+
+    // Longest a bulk job waits between batches for writers queued behind it
+    private static final long BULK_STEP_ASIDE_NANOS = 10_000_000;
+
+    private final ConcurrentHashMap<Long, UserVersion> users = new ConcurrentHashMap<>();
+
+    // Users whose chain has more than one version, or ends in a delete marker
+    private final Set<Long> keysWithHistory = ConcurrentHashMap.newKeySet();
+
+    // Open snapshot timestamps and how many snapshots use each
+    private final ConcurrentSkipListMap<Long, Integer> activeSnapshots = new ConcurrentSkipListMap<>();
+
+    // Aggregates kept up to date on every commit, served without scanning the table
+    private final UserStatistics statistics = new UserStatistics();
+
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private volatile long lastCommitted = 0;
+
+    // Snapshots older than this may already have lost versions to garbage collection
+    private volatile long gcHorizon = 0;
+    private long lastCollectedAt = -1;
+
+    // Set when a snapshot closed while a writer held the lock
+    private volatile boolean collectionRequested;
 
     @Override
     public String insertUser(long id, String name, String surname) {
-        if (name == null || surname == null) {
-            return "Invalid user data";
-        }
-        
-        User user = new User(id, name, surname);
-        User previous = users.putIfAbsent(id, user);
-        
-        if (previous != null) {
-            return "User with ID " + id + " already exists";
+        FakeRepoEvent event = new FakeRepoEvent();
+        event.begin();
+        String outcome = "ERROR";
+        try {
+            if (name == null || surname == null) {
+                outcome = "INVALID";
+                return "Invalid user data";
+            }
+
+            commitLock.lock();
+            try {
+                UserVersion head = users.get(id);
+                if (head != null && !head.isDeleted()) {
+                    outcome = "DUPLICATE";
+                    return "User with ID " + id + " already exists";
+                }
+                commit(id, new UserVersion(name, surname, lastCommitted + 1, head));
+            } finally {
+                unlockCommit();
+            }
+
+            outcome = "OK";
+            return name;
+        } finally {
+            event.finish("insertUser", id, outcome);
         }
-        
-        return name;
     }
 
     @Override
     public String findUserById(long id) {
-        User user = users.get(id);
-        if (user == null) {
-            return "User not found";
+        FakeRepoEvent event = new FakeRepoEvent();
+        event.begin();
+        String outcome = "ERROR";
+        try {
+            UserVersion version = readLatest(id);
+            if (version == null) {
+                outcome = "NOT_FOUND";
+                return "User not found";
+            }
+            String fullName = version.fullName();
+            outcome = "OK";
+            return fullName;
+        } finally {
+            event.finish("findUserById", id, outcome);
+        }
+    }
+
+    /**
+     * Returns the user's name and surname pre-encoded for the binary TCP protocol
+     * (see {@link UserVersion#record()}), or null if the user doesn't exist.
+     */
+    public byte[] findUserRecord(long id) {
+        FakeRepoEvent event = new FakeRepoEvent();
+        event.begin();
+        String outcome = "ERROR";
+        try {
+            UserVersion version = readLatest(id);
+            if (version == null) {
+                outcome = "NOT_FOUND";
+                return null;
+            }
+            byte[] record = version.record();
+            outcome = "OK";
+            return record;
+        } finally {
+            event.finish("findUserRecord", id, outcome);
+        }
+    }
+
+    @Override
+    public String editUser(long id, String newName, String newSurname) {
+        FakeRepoEvent event = new FakeRepoEvent();
+        event.begin();
+        String outcome = "ERROR";
+        try {
+            if (newName == null || newSurname == null) {
+                outcome = "INVALID";
+                return "Invalid user data";
+            }
+
+            commitLock.lock();
+            try {
+                UserVersion head = users.get(id);
+                if (head == null || head.isDeleted()) {
+                    outcome = "NOT_FOUND";
+                    return "User not found";
+                }
+                commit(id, new UserVersion(newName, newSurname, lastCommitted + 1, head));
+            } finally {
+                unlockCommit();
+            }
+
+            outcome = "OK";
+            return newName;
+        } finally {
+            event.finish("editUser", id, outcome);
         }
-        return user.getName() + " " + user.getSurname();
     }
 
     @Override
     public String deleteUser(long id) {
-        User user = users.remove(id);
-        if (user == null) {
-            return "User not found";
+        FakeRepoEvent event = new FakeRepoEvent();
+        event.begin();
+        String outcome = "ERROR";
+        try {
+            UserVersion head;
+            commitLock.lock();
+            try {
+                head = users.get(id);
+                if (head == null || head.isDeleted()) {
+                    outcome = "NOT_FOUND";
+                    return "User not found";
+                }
+                commit(id, new UserVersion(null, null, lastCommitted + 1, head));
+            } finally {
+                unlockCommit();
+            }
+
+            outcome = "OK";
+            return head.name;
+        } finally {
+            event.finish("deleteUser", id, outcome);
         }
-        return user.getName();
     }
-    
+
+    @Override
+    public Map<Long, String> findUsersByIds(long[] ids) {
+        FakeRepoEvent event = new FakeRepoEvent();
+        event.begin();
+        String outcome = "ERROR";
+        try (UserSnapshot snapshot = openSnapshot()) {
+            Map<Long, String> found = snapshot.findUsersByIds(ids);
+            outcome = "OK";
+            return found;
+        } finally {
+            event.finish("findUsersByIds", 0, outcome);
+        }
+    }
+
+    @Override
+    public TransactionResult applyTransaction(List<UserOperation> operations) {
+        FakeRepoEvent event = new FakeRepoEvent();
+        event.begin();
+        String outcome = "ERROR";
+
+        commitLock.lock();
+        try {
+            long ts = lastCommitted + 1;
+            // Latest state of each user touched so far, so later operations see earlier ones
+            Map<Long, UserVersion> staged = new LinkedHashMap<>();
+            List<String> results = new ArrayList<>(operations.size());
+
+            for (int i = 0; i < operations.size(); i++) {
+                UserOperation operation = operations.get(i);
+                long id = operation.getId();
+                UserVersion current = staged.containsKey(id) ? staged.get(id) : users.get(id);
+                boolean exists = current != null && !current.isDeleted();
+
+                String failure = null;
+                if (operation.getType() == null) {
+                    failure = "Missing operation type";
+                } else if (operation.getType() != UserOperation.Type.DELETE
+                        && (operation.getName() == null || operation.getSurname() == null)) {
+                    failure = "Invalid user data";
+                } else if (operation.getType() == UserOperation.Type.INSERT && exists) {
+                    failure = "User with ID " + id + " already exists";
+                } else if (operation.getType() != UserOperation.Type.INSERT && !exists) {
+                    failure = "User not found";
+                }
+                if (failure != null) {
+                    outcome = "ROLLED_BACK";
+                    return TransactionResult.rolledBack(i, failure);
+                }
+
+                if (operation.getType() == UserOperation.Type.DELETE) {
+                    staged.put(id, new UserVersion(null, null, ts, null));
+                    results.add(current.name);
+                } else {
+                    staged.put(id, new UserVersion(operation.getName(), operation.getSurname(), ts, null));
+                    results.add(operation.getName());
+                }
+            }
+
+            for (Map.Entry<Long, UserVersion> entry : staged.entrySet()) {
+                UserVersion head = users.get(entry.getKey());
+                UserVersion version = entry.getValue();
+                if (head == null && version.isDeleted()) {
+                    continue; // Inserted and deleted again within this transaction
+                }
+                version.older = head;
+                install(entry.getKey(), version);
+            }
+            publish(ts);
+
+            outcome = "OK";
+            return TransactionResult.committed(results);
+        } finally {
+            unlockCommit();
+            event.finish("applyTransaction", 0, outcome);
+        }
+    }
+
+    /**
+     * Users are matched in parallel, on chunks of the table, against a snapshot taken when
+     * the job starts; users added after that are left alone. The snapshot is closed before
+     * anything changes, and the matches are then re-checked and changed a small batch per
+     * commit, so single-user requests get the commit lock in between.
+     */
+    @Override
+    public long bulkMutate(BulkMutation mutation) {
+        FakeRepoEvent event = new FakeRepoEvent();
+        event.begin();
+        String outcome = "ERROR";
+        try {
+            UserFilter filter = mutation.getFilter();
+            Queue<Long> matches = new ConcurrentLinkedQueue<>();
+            try (UserSnapshot snapshot = openSnapshot()) {
+                long ts = snapshot.getTimestamp();
+                users.forEach(BULK_PARALLELISM_THRESHOLD, (id, head) -> {
+                    UserVersion version = UserVersion.visibleAt(head, ts);
+                    if (version != null && filter.matches(version.name, version.surname)) {
+                        matches.add(id);
+                    }
+                });
+            }
+
+            long affected = 0;
+            Iterator<Long> remaining = matches.iterator();
+            while (remaining.hasNext()) {
+                affected += mutateBatch(remaining, mutation);
+                stepAside();
+            }
+            outcome = "OK";
+            return affected;
+        } finally {
+            event.finish("bulkMutate", 0, outcome);
+        }
+    }
+
     public List<User> getAllUsers() {
-        return new ArrayList<>(users.values());
+        FakeRepoEvent event = new FakeRepoEvent();
+        event.begin();
+        String outcome = "ERROR";
+        try (UserSnapshot snapshot = openSnapshot()) {
+            List<User> allUsers = snapshot.getAllUsers();
+            outcome = "OK";
+            return allUsers;
+        } finally {
+            event.finish("getAllUsers", 0, outcome);
+        }
+    }
+
+    public UserStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Opens a consistent view of the repository as of the latest commit.
+     * The caller must close it.
+     */
+    public UserSnapshot openSnapshot() {
+        while (true) {
+            long ts = lastCommitted;
+            activeSnapshots.merge(ts, 1, Integer::sum);
+            // Garbage collection publishes its horizon before it looks at the open snapshots,
+            // so either it saw this one, or this check sees the new horizon and we retry.
+            if (ts >= gcHorizon) {
+                return new UserSnapshot(this, ts);
+            }
+            releaseSnapshot(ts);
+        }
+    }
+
+    void releaseSnapshot(long ts) {
+        activeSnapshots.computeIfPresent(ts, (key, count) -> count == 1 ? null : count - 1);
+        // Closing the oldest snapshot may free old versions. If a writer holds the lock, it
+        // sees the request when it unlocks and collects then, so nothing waits for a later write.
+        if (!keysWithHistory.isEmpty()) {
+            collectionRequested = true;
+            runRequestedCollection();
+        }
+    }
+
+    UserVersion head(long id) {
+        return users.get(id);
+    }
+
+    Map<Long, UserVersion> heads() {
+        return users;
+    }
+
+    // For tests: whether any user still has old versions or a delete marker waiting to be dropped
+    boolean hasHistory() {
+        return !keysWithHistory.isEmpty();
+    }
+
+    private UserVersion readLatest(long id) {
+        long ts = lastCommitted;
+        UserVersion head = users.get(id);
+        if (head == null || head.commitTs <= ts) {
+            // Common case: no write to this user is in the middle of committing
+            return head == null || head.isDeleted() ? null : head;
+        }
+        try (UserSnapshot snapshot = openSnapshot()) {
+            return UserVersion.visibleAt(users.get(id), snapshot.getTimestamp());
+        }
+    }
+
+    /**
+     * Lets the writers that queued up during the last batch commit first. The lock is not
+     * fair, so without this the bulk job would usually take it straight back.
+     */
+    private void stepAside() {
+        long deadline = System.nanoTime() + BULK_STEP_ASIDE_NANOS;
+        while (commitLock.hasQueuedThreads() && System.nanoTime() < deadline) {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Changes up to BULK_COMMIT_BATCH of the remaining matches in one commit and returns how
+     * many users actually changed.
+     */
+    private int mutateBatch(Iterator<Long> remaining, BulkMutation mutation) {
+        commitLock.lock();
+        try {
+            long ts = lastCommitted + 1;
+            int changed = 0;
+            for (int i = 0; i < BULK_COMMIT_BATCH && remaining.hasNext(); i++) {
+                long id = remaining.next();
+                // The user may have changed since the snapshot was taken
+                UserVersion head = users.get(id);
+                if (head == null || head.isDeleted() || !mutation.getFilter().matches(head.name, head.surname)) {
+                    continue;
+                }
+
+                if (mutation.getAction() == BulkMutation.Action.DELETE) {
+                    install(id, new UserVersion(null, null, ts, head));
+                    changed++;
+                    continue;
+                }
+                String name = mutation.getName() != null ? mutation.getName() : head.name;
+                String surname = mutation.getSurname() != null ? mutation.getSurname() : head.surname;
+                if (!name.equals(head.name) || !surname.equals(head.surname)) {
+                    install(id, new UserVersion(name, surname, ts, head));
+                    changed++;
+                }
+            }
+            if (changed > 0) {
+                publish(ts);
+            }
+            return changed;
+        } finally {
+            unlockCommit();
+        }
+    }
+
+    // Must hold commitLock
+    private void unlockCommit() {
+        commitLock.unlock();
+        runRequestedCollection();
+    }
+
+    private void runRequestedCollection() {
+        while (collectionRequested && commitLock.tryLock()) {
+            try {
+                collectionRequested = false;
+                collectGarbage();
+            } finally {
+                commitLock.unlock();
+            }
+        }
+    }
+
+    // Must hold commitLock
+    private void commit(long id, UserVersion version) {
+        install(id, version);
+        publish(version.commitTs);
+    }
+
+    // Must hold commitLock
+    private void install(long id, UserVersion version) {
+        statistics.onReplace(version.older, version);
+        users.put(id, version);
+        if (version.older != null || version.isDeleted()) {
+            keysWithHistory.add(id);
+        }
+    }
+
+    // Must hold commitLock
+    private void publish(long ts) {
+        lastCommitted = ts;
+        collectGarbage();
+    }
+
+    // Must hold commitLock
+    private void collectGarbage() {
+        if (keysWithHistory.isEmpty()) {
+            return;
+        }
+
+        long horizon = lastCommitted;
+        gcHorizon = horizon;
+        Map.Entry<Long, Integer> oldest = activeSnapshots.firstEntry();
+        if (oldest != null && oldest.getKey() < horizon) {
+            horizon = oldest.getKey();
+        }
+        if (horizon == lastCollectedAt) {
+            return; // Nothing has become unreachable since the last run
+        }
+        lastCollectedAt = horizon;
+
+        for (Iterator<Long> it = keysWithHistory.iterator(); it.hasNext(); ) {
+            long id = it.next();
+            UserVersion head = users.get(id);
+
+            // The newest version visible at the horizon is the oldest one anybody can still need
+            UserVersion keep = head;
+            while (keep != null && keep.commitTs > horizon) {
+                keep = keep.older;
+            }
+            if (keep != null) {
+                keep.older = null;
+            }
+
+            if (keep == head) {
+                if (head != null && head.isDeleted()) {
+                    users.remove(id, head);
+                }
+                it.remove();
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,38 @@
 
 package com.example.demo.repo;
 
+import com.example.demo.model.BulkMutation;
 import com.example.demo.model.User;
+import com.example.demo.model.UserOperation;
+
+import java.util.List;
+import java.util.Map;
 
 public interface FakeRepoInterface {
     String insertUser(long id, String name, String surname);
     String findUserById(long id);
     String deleteUser(long id);
+
+    /**
+     * Replaces the user's name and surname. Returns the new name, or "User not found".
+     */
+    String editUser(long id, String newName, String newSurname);
+
+    /**
+     * Looks up several users in one pass. The result maps each id that was found to the
+     * user's full name; ids that don't exist are left out.
+     */
+    Map<Long, String> findUsersByIds(long[] ids);
+
+    /**
+     * Applies all operations atomically: readers see either none or all of them. If any
+     * operation fails, nothing is applied.
+     */
+    TransactionResult applyTransaction(List<UserOperation> operations);
+
+    /**
+     * Deletes or renames every user matching the mutation's filter and returns how many
+     * users were changed. Each user is changed atomically; the batch as a whole is not.
+     */
+    long bulkMutate(BulkMutation mutation);
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.example.demo.repo;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of {@link FakeRepoInterface#applyTransaction}. Either every operation was applied
+ * (and {@link #getResults()} holds one result per operation, in the same form the single-record
+ * methods return), or none was and {@link #getFailedOperation()} points at the one that failed.
+ */
+public class TransactionResult {
+    private final boolean committed;
+    private final int failedOperation;
+    private final String message;
+    private final List<String> results;
+
+    private TransactionResult(boolean committed, int failedOperation, String message, List<String> results) {
+        this.committed = committed;
+        this.failedOperation = failedOperation;
+        this.message = message;
+        this.results = results;
+    }
+
+    public static TransactionResult committed(List<String> results) {
+        return new TransactionResult(true, -1, "Committed " + results.size() + " operations", results);
+    }
+
+    public static TransactionResult rolledBack(int failedOperation, String reason) {
+        return new TransactionResult(false, failedOperation,
+                "Operation " + failedOperation + " failed: " + reason, Collections.emptyList());
+    }
+
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    public int getFailedOperation() {
+        return failedOperation;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public List<String> getResults() {
+        return results;
+    }
+}
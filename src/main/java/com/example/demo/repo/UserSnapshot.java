@@ -0,0 +1,63 @@
+package com.example.demo.repo;
+
+import com.example.demo.model.User;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A consistent, point-in-time view of the repository. Reads through a snapshot never block
+ * and never see writes committed after it was opened. Close it when done so that the old
+ * versions it keeps alive can be garbage-collected.
+ */
+public final class UserSnapshot implements AutoCloseable {
+    private final FakeRepo repo;
+    private final long ts;
+    private boolean closed;
+
+    UserSnapshot(FakeRepo repo, long ts) {
+        this.repo = repo;
+        this.ts = ts;
+    }
+
+    public long getTimestamp() {
+        return ts;
+    }
+
+    public String findUserById(long id) {
+        UserVersion version = UserVersion.visibleAt(repo.head(id), ts);
+        return version == null ? "User not found" : version.fullName();
+    }
+
+    public Map<Long, String> findUsersByIds(long[] ids) {
+        Map<Long, String> found = new LinkedHashMap<>(ids.length * 4 / 3 + 1);
+        for (long id : ids) {
+            UserVersion version = UserVersion.visibleAt(repo.head(id), ts);
+            if (version != null) {
+                found.put(id, version.fullName());
+            }
+        }
+        return found;
+    }
+
+    public List<User> getAllUsers() {
+        List<User> allUsers = new ArrayList<>();
+        for (Map.Entry<Long, UserVersion> entry : repo.heads().entrySet()) {
+            UserVersion version = UserVersion.visibleAt(entry.getValue(), ts);
+            if (version != null) {
+                allUsers.add(new User(entry.getKey(), version.name, version.surname));
+            }
+        }
+        return allUsers;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            repo.releaseSnapshot(ts);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.demo.repo;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates over the user table that FakeRepo keeps up to date on every insert, edit and
+ * delete: total users, users per surname and users per first letter of the name. Reading
+ * them never touches the table, so they cost the same however many users there are.
+ *
+ * The counts follow commits as they are applied and are not tied to a snapshot; a reader
+ * racing a commit may see it half-counted for a moment.
+ */
+public class UserStatistics {
+    private final LongAdder total = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> bySurname = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LongAdder> byInitial = new ConcurrentHashMap<>();
+
+    // Surnames ordered by count, highest first, for top-k queries
+    private final ConcurrentSkipListSet<SurnameCount> ranking = new ConcurrentSkipListSet<>();
+
+    public long totalUsers() {
+        return total.sum();
+    }
+
+    public long countBySurname(String surname) {
+        LongAdder count = bySurname.get(surname);
+        return count == null ? 0 : count.sum();
+    }
+
+    /**
+     * Returns up to k surnames with the most users, most common first.
+     */
+    public Map<String, Long> topSurnames(int k) {
+        Map<String, Long> top = new LinkedHashMap<>();
+        // A surname whose count is being changed can show up twice for a moment; keep the first
+        Set<String> seen = new HashSet<>();
+        for (SurnameCount entry : ranking) {
+            if (top.size() == k) {
+                break;
+            }
+            if (seen.add(entry.surname)) {
+                top.put(entry.surname, entry.count);
+            }
+        }
+        return top;
+    }
+
+    public Map<String, Long> countsByInitial() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : byInitial.entrySet()) {
+            long count = entry.getValue().sum();
+            if (count > 0) {
+                counts.put(entry.getKey(), count);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Records that a user went from {@code before} to {@code after}; either may be null or a
+     * delete marker. Callers must not run this concurrently (FakeRepo holds its commit lock),
+     * which keeps each surname's ranking entry in step with its counter.
+     */
+    void onReplace(UserVersion before, UserVersion after) {
+        boolean existed = before != null && !before.isDeleted();
+        boolean exists = after != null && !after.isDeleted();
+
+        if (existed && exists && before.name.equals(after.name) && before.surname.equals(after.surname)) {
+            return;
+        }
+        if (existed) {
+            total.decrement();
+            adjustSurname(before.surname, -1);
+            adjust(byInitial, initial(before.name), -1);
+        }
+        if (exists) {
+            total.increment();
+            adjustSurname(after.surname, 1);
+            adjust(byInitial, initial(after.name), 1);
+        }
+    }
+
+    private void adjustSurname(String surname, int delta) {
+        long before = countBySurname(surname);
+        long after = before + delta;
+        adjust(bySurname, surname, delta);
+
+        // Add the new entry before removing the old one so readers never miss the surname
+        if (after > 0) {
+            ranking.add(new SurnameCount(surname, after));
+        }
+        if (before > 0) {
+            ranking.remove(new SurnameCount(surname, before));
+        }
+    }
+
+    private static void adjust(ConcurrentHashMap<String, LongAdder> counts, String key, int delta) {
+        LongAdder count = counts.computeIfAbsent(key, k -> new LongAdder());
+        count.add(delta);
+        if (count.sum() == 0) {
+            counts.remove(key, count);
+        }
+    }
+
+    private static String initial(String name) {
+        if (name.isEmpty()) {
+            return "";
+        }
+        return new String(Character.toChars(Character.toUpperCase(name.codePointAt(0))));
+    }
+
+    private static final class SurnameCount implements Comparable<SurnameCount> {
+        private final String surname;
+        private final long count;
+
+        private SurnameCount(String surname, long count) {
+            this.surname = surname;
+            this.count = count;
+        }
+
+        @Override
+        public int compareTo(SurnameCount other) {
+            int byCount = Long.compare(other.count, count);
+            return byCount != 0 ? byCount : surname.compareTo(other.surname);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof SurnameCount)) return false;
+            SurnameCount that = (SurnameCount) o;
+            return count == that.count && surname.equals(that.surname);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * surname.hashCode() + Long.hashCode(count);
+        }
+    }
+}
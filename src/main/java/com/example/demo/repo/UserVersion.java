@@ -0,0 +1,75 @@
+package com.example.demo.repo;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One committed version of a user. Versions are never changed after they are published;
+ * an edit or delete adds a newer version in front of the old one. A version with a null
+ * name marks the user as deleted.
+ */
+final class UserVersion {
+    final String name;
+    final String surname;
+    final long commitTs;
+
+    // Next older version of the same user, cut off by garbage collection once no snapshot needs it
+    volatile UserVersion older;
+
+    // Name and surname in binary protocol form, encoded on first use
+    private volatile byte[] record;
+
+    UserVersion(String name, String surname, long commitTs, UserVersion older) {
+        this.name = name;
+        this.surname = surname;
+        this.commitTs = commitTs;
+        this.older = older;
+    }
+
+    boolean isDeleted() {
+        return name == null;
+    }
+
+    String fullName() {
+        return name + " " + surname;
+    }
+
+    /**
+     * Returns name and surname as {@code [u16 length][UTF-8 name][u16 length][UTF-8 surname]}.
+     * Versions never change, so this is encoded once and shared by every read. Returns an empty
+     * array if either part is longer than 65535 bytes and can't be encoded this way.
+     */
+    byte[] record() {
+        byte[] encoded = record;
+        if (encoded == null) {
+            byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            byte[] surnameBytes = surname.getBytes(StandardCharsets.UTF_8);
+            if (nameBytes.length > 0xFFFF || surnameBytes.length > 0xFFFF) {
+                encoded = new byte[0];
+            } else {
+                encoded = new byte[4 + nameBytes.length + surnameBytes.length];
+                int pos = putString(encoded, 0, nameBytes);
+                putString(encoded, pos, surnameBytes);
+            }
+            record = encoded;
+        }
+        return encoded;
+    }
+
+    private static int putString(byte[] target, int pos, byte[] bytes) {
+        target[pos] = (byte) (bytes.length >>> 8);
+        target[pos + 1] = (byte) bytes.length;
+        System.arraycopy(bytes, 0, target, pos + 2, bytes.length);
+        return pos + 2 + bytes.length;
+    }
+
+    /**
+     * Returns the newest version in this chain that was committed at or before the given
+     * timestamp, or null if the user didn't exist (or was deleted) at that point.
+     */
+    static UserVersion visibleAt(UserVersion version, long ts) {
+        while (version != null && version.commitTs > ts) {
+            version = version.older;
+        }
+        return version == null || version.isDeleted() ? null : version;
+    }
+}
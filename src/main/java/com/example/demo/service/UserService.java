@@ -1,6 +1,11 @@
 
 package com.example.demo.service;
 
+import com.example.demo.model.UserOperation;
+import com.example.demo.repo.TransactionResult;
+
+import java.util.List;
+
 public interface UserService {
     void addUser(String name, String surname);
 
@@ -9,4 +14,6 @@ public interface UserService {
     void getUser(long id);
 
     void editUser(long id, String newName, String newSurname);
+
+    TransactionResult applyTransaction(List<UserOperation> operations);
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 
 package com.example.demo.service;
 
+import com.example.demo.jfr.UserServiceEvent;
 import com.example.demo.repo.FakeRepo;
 import com.example.demo.repo.FakeRepoInterface;
+import com.example.demo.repo.TransactionResult;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -16,105 +18,196 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 import com.example.demo.model.User;
+import com.example.demo.model.UserOperation;
 
 @Service
 public class UserServiceImpl implements UserService {
     private final FakeRepoInterface fakeRepo;
     private final AtomicLong nextId = new AtomicLong(1); // Thread-safe ID generation
+    private boolean verbose = true;
 
     @Autowired
     public UserServiceImpl(FakeRepoInterface fakeRepo) {
         this.fakeRepo = fakeRepo;
     }
 
+    /**
+     * With verbose off the service prints nothing, for internal callers such as the JIT warm-up.
+     * Set it before the service is used.
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
     @Override
     public void addUser(String name, String surname) {
-        if (name == null || name.trim().isEmpty() || surname == null || surname.trim().isEmpty()) {
-            System.out.println("Error: Name and surname cannot be empty");
-            return;
-        }
+        UserServiceEvent event = new UserServiceEvent();
+        event.begin();
+        long id = 0;
+        String outcome = "ERROR";
+        try {
+            if (name == null || name.trim().isEmpty() || surname == null || surname.trim().isEmpty()) {
+                print("Error: Name and surname cannot be empty");
+                outcome = "INVALID";
+                return;
+            }
 
-        long id = nextId.getAndIncrement();
-        String result = fakeRepo.insertUser(id, name, surname);
+            id = nextId.getAndIncrement();
+            String result = fakeRepo.insertUser(id, name, surname);
 
-        if (result.equals(name)) {
-            System.out.println(name + " added with ID: " + id);
-        } else {
-            System.out.println("Failed to add user: " + result);
+            if (result.equals(name)) {
+                print(name + " added with ID: " + id);
+                outcome = "OK";
+            } else {
+                print("Failed to add user: " + result);
+                outcome = "FAILED";
+            }
+        } finally {
+            event.finish("addUser", id, outcome);
         }
     }
 
     @Override
     public void removeUser(long id) {
-        if (id <= 0) {
-            System.out.println("Error: Invalid ID");
-            return;
-        }
+        UserServiceEvent event = new UserServiceEvent();
+        event.begin();
+        String outcome = "ERROR";
+        try {
+            if (id <= 0) {
+                print("Error: Invalid ID");
+                outcome = "INVALID";
+                return;
+            }
 
-        String result = fakeRepo.deleteUser(id);
-        if (!result.equals("User not found")) {
-            System.out.println(result + " removed successfully");
-        } else {
-            System.out.println("User not found with ID: " + id);
+            String result = fakeRepo.deleteUser(id);
+            if (!result.equals("User not found")) {
+                print(result + " removed successfully");
+                outcome = "OK";
+            } else {
+                print("User not found with ID: " + id);
+                outcome = "NOT_FOUND";
+            }
+        } finally {
+            event.finish("removeUser", id, outcome);
         }
     }
 
     @Override
     public void getUser(long id) {
-        if (id <= 0) {
-            System.out.println("Error: Invalid ID");
-            return;
-        }
+        UserServiceEvent event = new UserServiceEvent();
+        event.begin();
+        String outcome = "ERROR";
+        try {
+            if (id <= 0) {
+                print("Error: Invalid ID");
+                outcome = "INVALID";
+                return;
+            }
 
-        String result = fakeRepo.findUserById(id);
-        if (!result.equals("User not found")) {
-            System.out.println("Hello " + result);
-        } else {
-            System.out.println("User not found with ID: " + id);
+            String result = fakeRepo.findUserById(id);
+            if (!result.equals("User not found")) {
+                print("Hello " + result);
+                outcome = "OK";
+            } else {
+                print("User not found with ID: " + id);
+                outcome = "NOT_FOUND";
+            }
+        } finally {
+            event.finish("getUser", id, outcome);
         }
     }
 
     @Override
     public void editUser(long id, String newName, String newSurname) {
-        if (id <= 0 || newName == null || newName.trim().isEmpty() || newSurname == null
-                || newSurname.trim().isEmpty()) {
-            System.out.println("Error: Invalid ID or name/surname cannot be empty");
-            return;
+        UserServiceEvent event = new UserServiceEvent();
+        event.begin();
+        String outcome = "ERROR";
+        try {
+            if (id <= 0 || newName == null || newName.trim().isEmpty() || newSurname == null
+                    || newSurname.trim().isEmpty()) {
+                print("Error: Invalid ID or name/surname cannot be empty");
+                outcome = "INVALID";
+                return;
+            }
+
+            String result = fakeRepo.editUser(id, newName, newSurname);
+            if (!result.equals("User not found")) {
+                print("User with ID " + id + " updated successfully");
+                outcome = "OK";
+            } else {
+                print("User not found with ID: " + id);
+                outcome = "NOT_FOUND";
+            }
+        } finally {
+            event.finish("editUser", id, outcome);
         }
+    }
 
-        if (fakeRepo instanceof FakeRepo) {
-            User user = ((FakeRepo) fakeRepo).getAllUsers().stream()
-                    .filter(u -> u.getId() == id)
-                    .findFirst()
-                    .orElse(null);
-
-            if (user != null) {
-                user.setName(newName);
-                user.setSurname(newSurname);
-                System.out.println("User with ID " + id + " updated successfully");
+    @Override
+    public TransactionResult applyTransaction(List<UserOperation> operations) {
+        UserServiceEvent event = new UserServiceEvent();
+        event.begin();
+        String outcome = "ERROR";
+        try {
+            for (int i = 0; i < operations.size(); i++) {
+                UserOperation operation = operations.get(i);
+                boolean namesUser = operation.getType() == UserOperation.Type.INSERT
+                        || operation.getType() == UserOperation.Type.EDIT;
+                if (namesUser && (operation.getName() == null || operation.getName().trim().isEmpty()
+                        || operation.getSurname() == null || operation.getSurname().trim().isEmpty())) {
+                    print("Error: Name and surname cannot be empty");
+                    outcome = "INVALID";
+                    return TransactionResult.rolledBack(i, "Name and surname cannot be empty");
+                }
+            }
+
+            // Every insert gets the next generated ID, so later adds never collide with it
+            for (UserOperation operation : operations) {
+                if (operation.getType() == UserOperation.Type.INSERT) {
+                    operation.setId(nextId.getAndIncrement());
+                }
+            }
+
+            TransactionResult result = fakeRepo.applyTransaction(operations);
+            if (result.isCommitted()) {
+                print("Transaction committed: " + operations.size() + " operations");
+                outcome = "OK";
             } else {
-                System.out.println("User not found with ID: " + id);
+                print("Transaction rolled back: " + result.getMessage());
+                outcome = "ROLLED_BACK";
             }
-        } else {
-            System.out.println("Operation not supported");
+            return result;
+        } finally {
+            event.finish("applyTransaction", 0, outcome);
         }
     }
 
+    /**
+     * Hands out the next user ID, for callers that insert into the repository directly.
+     */
+    public long reserveId() {
+        return nextId.getAndIncrement();
+    }
+
     public void listAllUsers() {
         if (fakeRepo instanceof FakeRepo) {
             List<User> allUsers = ((FakeRepo) fakeRepo).getAllUsers();
             if (allUsers.isEmpty()) {
-                System.out.println("No users found");
+                print("No users found");
             } else {
-                System.out.println("All users:");
+                print("All users:");
                 for (User user : allUsers) {
-                    System.out.println("ID: " + user.getId() + ", Name: " + user.getName() + " " + user.getSurname());
+                    print("ID: " + user.getId() + ", Name: " + user.getName() + " " + user.getSurname());
                 }
             }
         } else {
-            System.out.println("Operation not supported");
+            print("Operation not supported");
         }
     }
 
-   
-}
\ No newline at end of file
+    private void print(String message) {
+        if (verbose) {
+            System.out.println(message);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo.tcp;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary protocol spoken by {@link UserTcpServer} and {@link UserTcpClient}.
+ *
+ * Every message is a frame: a 4-byte big-endian length followed by that many bytes.
+ * Strings are a 2-byte unsigned length followed by UTF-8 bytes.
+ *
+ * Request:  [u8 opcode][i64 id][string name][string surname]
+ *           ADD sends id 0; GET and REMOVE send no strings.
+ * Response: [u8 status][payload]
+ *           GET returns [string name][string surname], ADD returns [i64 id],
+ *           everything else has an empty payload.
+ *
+ * Clients may send many requests without waiting; responses come back in request order.
+ */
+public final class UserProtocol {
+    public static final byte OP_ADD = 1;
+    public static final byte OP_GET = 2;
+    public static final byte OP_EDIT = 3;
+    public static final byte OP_REMOVE = 4;
+
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_NOT_FOUND = 1;
+    public static final byte STATUS_INVALID = 2;
+    public static final byte STATUS_FAILED = 3;
+    public static final byte STATUS_BAD_REQUEST = 4;
+    public static final byte STATUS_TOO_LARGE = 5;
+
+    /** Requests larger than this are rejected and the connection is closed. */
+    public static final int MAX_REQUEST_SIZE = 4096;
+
+    static final int LENGTH_PREFIX = 4;
+    static final int REQUEST_HEADER = 1 + 8;
+    static final int MAX_STRING_LENGTH = 0xFFFF;
+
+    private UserProtocol() {
+    }
+
+    /**
+     * Writes one request frame. The buffer must have room for it.
+     */
+    public static void writeRequest(ByteBuffer buffer, byte opcode, long id, byte[] name, byte[] surname) {
+        int length = REQUEST_HEADER;
+        if (name != null) {
+            length += 4 + name.length + surname.length;
+        }
+        buffer.putInt(length);
+        buffer.put(opcode);
+        buffer.putLong(id);
+        if (name != null) {
+            putString(buffer, name);
+            putString(buffer, surname);
+        }
+    }
+
+    public static int requestSize(byte[] name, byte[] surname) {
+        return LENGTH_PREFIX + REQUEST_HEADER + (name == null ? 0 : 4 + name.length + surname.length);
+    }
+
+    public static byte[] encode(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_LENGTH) {
+            throw new IllegalArgumentException("String is longer than " + MAX_STRING_LENGTH + " bytes");
+        }
+        return bytes;
+    }
+
+    static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Reads a string, or returns null if the buffer doesn't hold a complete one.
+     */
+    static String getString(ByteBuffer buffer) {
+        if (buffer.remaining() < 2) {
+            return null;
+        }
+        int length = buffer.getShort() & 0xFFFF;
+        if (buffer.remaining() < length) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.demo.tcp;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Blocking client for {@link UserTcpServer}. Not thread-safe; use one client per thread.
+ *
+ * The single-user methods do one round trip each. {@link #getUsers(long[])} pipelines its
+ * requests: it sends a window of them before reading any response.
+ */
+public class UserTcpClient implements Closeable {
+    // Requests in flight before reading responses; small enough that neither side's socket
+    // buffers fill up while the other is still writing
+    private static final int PIPELINE_WINDOW = 256;
+
+    private final SocketChannel channel;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(64 * 1024);
+    private final ByteBuffer in = ByteBuffer.allocateDirect(64 * 1024);
+
+    public UserTcpClient(String host, int port) throws IOException {
+        channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        in.limit(0);
+    }
+
+    /**
+     * Adds a user and returns the new ID, or -1 if the server rejected it.
+     */
+    public long addUser(String name, String surname) throws IOException {
+        send(UserProtocol.OP_ADD, 0, UserProtocol.encode(name), UserProtocol.encode(surname));
+        flush();
+        ByteBuffer response = readResponse();
+        return response.get() == UserProtocol.STATUS_OK ? response.getLong() : -1;
+    }
+
+    /**
+     * Returns the user's full name, or null if there is no such user.
+     */
+    public String getUser(long id) throws IOException {
+        send(UserProtocol.OP_GET, id, null, null);
+        flush();
+        return readFullName(readResponse());
+    }
+
+    /**
+     * Looks up every ID, pipelining the requests. The result has one entry per ID, in the
+     * same order, holding the full name or null.
+     */
+    public String[] getUsers(long[] ids) throws IOException {
+        String[] names = new String[ids.length];
+        for (int start = 0; start < ids.length; start += PIPELINE_WINDOW) {
+            int end = Math.min(ids.length, start + PIPELINE_WINDOW);
+            for (int i = start; i < end; i++) {
+                send(UserProtocol.OP_GET, ids[i], null, null);
+            }
+            flush();
+            for (int i = start; i < end; i++) {
+                names[i] = readFullName(readResponse());
+            }
+        }
+        return names;
+    }
+
+    public boolean editUser(long id, String newName, String newSurname) throws IOException {
+        send(UserProtocol.OP_EDIT, id, UserProtocol.encode(newName), UserProtocol.encode(newSurname));
+        flush();
+        return readResponse().get() == UserProtocol.STATUS_OK;
+    }
+
+    public boolean removeUser(long id) throws IOException {
+        send(UserProtocol.OP_REMOVE, id, null, null);
+        flush();
+        return readResponse().get() == UserProtocol.STATUS_OK;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void send(byte opcode, long id, byte[] name, byte[] surname) throws IOException {
+        int size = UserProtocol.requestSize(name, surname);
+        if (size - UserProtocol.LENGTH_PREFIX > UserProtocol.MAX_REQUEST_SIZE) {
+            throw new IllegalArgumentException("Request is larger than " + UserProtocol.MAX_REQUEST_SIZE + " bytes");
+        }
+        if (out.remaining() < size) {
+            flush();
+        }
+        UserProtocol.writeRequest(out, opcode, id, name, surname);
+    }
+
+    private void flush() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    /**
+     * Reads the next response frame and returns a view of its body, starting at the status byte.
+     */
+    private ByteBuffer readResponse() throws IOException {
+        fill(UserProtocol.LENGTH_PREFIX);
+        int length = in.getInt();
+        if (length < 1 || length > in.capacity()) {
+            throw new IOException("Invalid response length " + length);
+        }
+        fill(length);
+        ByteBuffer body = in.slice();
+        body.limit(length);
+        in.position(in.position() + length);
+        return body;
+    }
+
+    // Makes sure at least the given number of unread bytes are in the read buffer
+    private void fill(int bytes) throws IOException {
+        if (in.remaining() >= bytes) {
+            return;
+        }
+        in.compact();
+        while (in.position() < bytes) {
+            if (channel.read(in) < 0) {
+                throw new EOFException("Server closed the connection");
+            }
+        }
+        in.flip();
+    }
+
+    private String readFullName(ByteBuffer response) throws IOException {
+        byte status = response.get();
+        if (status == UserProtocol.STATUS_NOT_FOUND) {
+            return null;
+        }
+        if (status != UserProtocol.STATUS_OK) {
+            throw new IOException("Lookup failed with status " + status);
+        }
+        return UserProtocol.getString(response) + " " + UserProtocol.getString(response);
+    }
+}
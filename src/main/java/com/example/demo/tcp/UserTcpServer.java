@@ -0,0 +1,364 @@
+package com.example.demo.tcp;
+
+import com.example.demo.repo.FakeRepo;
+import com.example.demo.service.UserServiceImpl;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * Non-blocking TCP server for the {@link UserProtocol} binary protocol.
+ *
+ * One selector thread serves every connection. Each connection has a direct read buffer and
+ * a direct write buffer: all complete requests in the read buffer are handled in one go and
+ * their responses are written back together, so pipelined requests cost one read and one
+ * write system call per batch. GET responses copy the name bytes the repository already
+ * holds in encoded form, so reads do no String or UTF-8 work.
+ *
+ * While a connection's responses can't be written out, the server stops reading from it.
+ *
+ * Buffers are only held while a connection has unprocessed input or unwritten output; idle
+ * connections hand them back to a small pool. At most {@code maxConnections} clients are
+ * served at once and further ones are closed right after accept. The protocol has no
+ * authentication, so the server should listen on loopback or an internal interface only.
+ */
+public class UserTcpServer {
+    private static final int MAX_MUTATION_RESPONSE = UserProtocol.LENGTH_PREFIX + 1 + 8;
+
+    // Free buffers kept for reuse; more than this are left to the garbage collector
+    private static final int MAX_POOLED_BUFFERS = 64;
+
+    private final FakeRepo fakeRepo;
+    private final UserServiceImpl userService;
+    private final String address;
+    private final int port;
+    private final int bufferSize;
+    private final int maxConnections;
+
+    // Only touched by the event loop thread
+    private final ArrayDeque<ByteBuffer> freeBuffers = new ArrayDeque<>();
+    private int connections;
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread eventLoop;
+    private volatile boolean running;
+
+    public UserTcpServer(FakeRepo fakeRepo, UserServiceImpl userService, String address, int port,
+                         int bufferSize, int maxConnections) {
+        this.fakeRepo = fakeRepo;
+        this.userService = userService;
+        this.address = address;
+        this.port = port;
+        this.bufferSize = Math.max(bufferSize, 2 * UserProtocol.MAX_REQUEST_SIZE);
+        this.maxConnections = Math.max(1, maxConnections);
+    }
+
+    public void start() throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(address, port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        running = true;
+        eventLoop = new Thread(this::runEventLoop, "user-tcp-server");
+        eventLoop.setDaemon(true);
+        eventLoop.start();
+        System.out.println("User TCP server listening on " + address + ":" + getPort());
+    }
+
+    public void stop() throws InterruptedException {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        if (eventLoop != null) {
+            eventLoop.join(5000);
+        }
+    }
+
+    /**
+     * The port actually bound, which differs from the configured one when that was 0.
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    private void runEventLoop() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    try {
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else if (key.isReadable()) {
+                            read(key);
+                        } else if (key.isWritable()) {
+                            Connection connection = (Connection) key.attachment();
+                            process(key, connection);
+                            releaseBuffersIfIdle(connection);
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        if (key.channel() == serverChannel) {
+                            System.out.println("User TCP server could not accept a connection: " + e.getMessage());
+                        } else {
+                            // A broken connection or a failing request only costs that connection
+                            close(key);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("User TCP server stopped: " + e.getMessage());
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                close(key);
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+                // Shutting down anyway
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        if (connections >= maxConnections) {
+            channel.close();
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        channel.register(selector, SelectionKey.OP_READ, new Connection());
+        connections++;
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        if (connection.in == null) {
+            connection.in = takeBuffer();
+            connection.out = takeBuffer();
+        }
+        int read = ((SocketChannel) key.channel()).read(connection.in);
+        if (read < 0) {
+            close(key);
+            return;
+        }
+        process(key, connection);
+        releaseBuffersIfIdle(connection);
+    }
+
+    // With no partial request left and everything written, the buffers go back to the pool
+    private void releaseBuffersIfIdle(Connection connection) {
+        if (connection.in.position() == 0 && connection.out.position() == 0) {
+            returnBuffer(connection.in);
+            returnBuffer(connection.out);
+            connection.in = null;
+            connection.out = null;
+        }
+    }
+
+    private ByteBuffer takeBuffer() throws IOException {
+        ByteBuffer buffer = freeBuffers.poll();
+        if (buffer != null) {
+            return buffer;
+        }
+        try {
+            return ByteBuffer.allocateDirect(bufferSize);
+        } catch (OutOfMemoryError e) {
+            // Out of direct memory: give up on this connection, not the whole server
+            throw new IOException("Could not allocate connection buffer", e);
+        }
+    }
+
+    private void returnBuffer(ByteBuffer buffer) {
+        if (freeBuffers.size() < MAX_POOLED_BUFFERS) {
+            buffer.clear();
+            freeBuffers.push(buffer);
+        }
+    }
+
+    /**
+     * Handles every complete request that fits, then flushes. Keeps going while requests
+     * were held back only for lack of room in the write buffer and the flush made room.
+     */
+    private void process(SelectionKey key, Connection connection) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        while (true) {
+            boolean heldBack = handleRequests(connection);
+
+            connection.out.flip();
+            channel.write(connection.out);
+            boolean unwritten = connection.out.hasRemaining();
+            connection.out.compact();
+
+            if (unwritten) {
+                key.interestOps(SelectionKey.OP_WRITE);
+                return;
+            }
+            if (!heldBack) {
+                key.interestOps(SelectionKey.OP_READ);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns true if a complete request is left over because its response didn't fit.
+     */
+    private boolean handleRequests(Connection connection) throws IOException {
+        ByteBuffer in = connection.in;
+        ByteBuffer out = connection.out;
+        in.flip();
+        try {
+            while (in.remaining() >= UserProtocol.LENGTH_PREFIX) {
+                int start = in.position();
+                int length = in.getInt(start);
+                if (length < UserProtocol.REQUEST_HEADER || length > UserProtocol.MAX_REQUEST_SIZE) {
+                    throw new IOException("Invalid frame length " + length);
+                }
+                if (in.remaining() < UserProtocol.LENGTH_PREFIX + length) {
+                    return false;
+                }
+
+                int end = start + UserProtocol.LENGTH_PREFIX + length;
+                ByteBuffer frame = in.duplicate();
+                frame.position(start + UserProtocol.LENGTH_PREFIX).limit(end);
+                if (!handle(frame, out)) {
+                    return true;
+                }
+                in.position(end);
+            }
+            return false;
+        } finally {
+            in.compact();
+        }
+    }
+
+    /**
+     * Handles one request and appends its response. Returns false, without changing anything,
+     * if the response doesn't fit in the write buffer right now.
+     */
+    private boolean handle(ByteBuffer frame, ByteBuffer out) {
+        byte opcode = frame.get();
+        long id = frame.getLong();
+
+        if (opcode == UserProtocol.OP_GET) {
+            byte[] record = fakeRepo.findUserRecord(id);
+            if (record == null) {
+                return respond(out, UserProtocol.STATUS_NOT_FOUND);
+            }
+            int size = UserProtocol.LENGTH_PREFIX + 1 + record.length;
+            if (record.length == 0 || size > out.capacity()) {
+                return respond(out, UserProtocol.STATUS_TOO_LARGE);
+            }
+            if (size > out.remaining()) {
+                return false;
+            }
+            out.putInt(1 + record.length);
+            out.put(UserProtocol.STATUS_OK);
+            out.put(record);
+            return true;
+        }
+
+        // Mutations can't be undone, so make sure their response fits before running them
+        if (out.remaining() < MAX_MUTATION_RESPONSE) {
+            return false;
+        }
+
+        switch (opcode) {
+            case UserProtocol.OP_ADD: {
+                String name = UserProtocol.getString(frame);
+                String surname = UserProtocol.getString(frame);
+                if (!isValid(name) || !isValid(surname)) {
+                    return respond(out, UserProtocol.STATUS_INVALID);
+                }
+                long newId = userService.reserveId();
+                if (!fakeRepo.insertUser(newId, name, surname).equals(name)) {
+                    return respond(out, UserProtocol.STATUS_FAILED);
+                }
+                out.putInt(1 + 8);
+                out.put(UserProtocol.STATUS_OK);
+                out.putLong(newId);
+                return true;
+            }
+            case UserProtocol.OP_EDIT: {
+                String name = UserProtocol.getString(frame);
+                String surname = UserProtocol.getString(frame);
+                if (id <= 0 || !isValid(name) || !isValid(surname)) {
+                    return respond(out, UserProtocol.STATUS_INVALID);
+                }
+                String result = fakeRepo.editUser(id, name, surname);
+                return respond(out, result.equals("User not found")
+                        ? UserProtocol.STATUS_NOT_FOUND : UserProtocol.STATUS_OK);
+            }
+            case UserProtocol.OP_REMOVE: {
+                if (id <= 0) {
+                    return respond(out, UserProtocol.STATUS_INVALID);
+                }
+                String result = fakeRepo.deleteUser(id);
+                return respond(out, result.equals("User not found")
+                        ? UserProtocol.STATUS_NOT_FOUND : UserProtocol.STATUS_OK);
+            }
+            default:
+                return respond(out, UserProtocol.STATUS_BAD_REQUEST);
+        }
+    }
+
+    private boolean respond(ByteBuffer out, byte status) {
+        if (out.remaining() < UserProtocol.LENGTH_PREFIX + 1) {
+            return false;
+        }
+        out.putInt(1);
+        out.put(status);
+        return true;
+    }
+
+    private boolean isValid(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+
+    private void close(SelectionKey key) {
+        key.cancel();
+        Connection connection = (Connection) key.attachment();
+        if (connection != null && !connection.closed) {
+            connection.closed = true;
+            connections--;
+            // Buffers of a broken connection may hold a partial frame; drop them rather than reuse
+            connection.in = null;
+            connection.out = null;
+        }
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+            // Already gone
+        }
+    }
+
+    private static final class Connection {
+        // Both null while the connection is idle
+        private ByteBuffer in;
+        private ByteBuffer out;
+        private boolean closed;
+    }
+}
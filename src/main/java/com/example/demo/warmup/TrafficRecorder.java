@@ -0,0 +1,84 @@
+package com.example.demo.warmup;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes a sample of incoming requests to a file for {@link WarmupRunner} to replay after the
+ * next deploy. Only the shape of each request is kept (for example {@code GET /api/users/{id}},
+ * or the number of IDs in a multi-get), never IDs, names or other data.
+ *
+ * Samples go to a side file that replaces the target file on {@link #close()}, so the sample
+ * from the previous run stays available for warm-up while this run records a new one.
+ */
+public class TrafficRecorder implements HandlerInterceptor {
+    private final double sampleRate;
+    private final int maxSamples;
+    private final AtomicInteger samples = new AtomicInteger();
+    private final Path file;
+    private final Path recordingFile;
+    private final BufferedWriter writer;
+
+    public TrafficRecorder(Path file, double sampleRate, int maxSamples) throws IOException {
+        this.sampleRate = sampleRate;
+        this.maxSamples = maxSamples;
+        this.file = file;
+        this.recordingFile = file.resolveSibling(file.getFileName() + ".recording");
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.writer = Files.newBufferedWriter(recordingFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (ThreadLocalRandom.current().nextDouble() >= sampleRate || samples.get() >= maxSamples) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            return;
+        }
+
+        String shape = request.getMethod() + " " + pattern;
+        String ids = request.getParameter("ids");
+        if (ids != null) {
+            shape += "?ids " + ids.split(",").length;
+        }
+        if (samples.incrementAndGet() <= maxSamples) {
+            write(shape);
+        }
+    }
+
+    public synchronized void close() throws IOException {
+        writer.close();
+        if (samples.get() > 0) {
+            Files.move(recordingFile, file, StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.deleteIfExists(recordingFile);
+        }
+    }
+
+    private synchronized void write(String shape) {
+        try {
+            writer.write(shape);
+            writer.newLine();
+        } catch (IOException e) {
+            // Recording is best effort; never fail a request over it
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.demo.warmup;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Records a sample of /api/users traffic to {@code app.warmup.file} while
+ * {@code app.warmup.record.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.warmup.record.enabled", havingValue = "true")
+public class TrafficRecordingConfig implements WebMvcConfigurer, DisposableBean {
+    private final TrafficRecorder recorder;
+
+    public TrafficRecordingConfig(@Value("${app.warmup.file:warmup/traffic.txt}") String file,
+                                  @Value("${app.warmup.record.sample-rate:0.01}") double sampleRate,
+                                  @Value("${app.warmup.record.max-samples:10000}") int maxSamples) throws IOException {
+        this.recorder = new TrafficRecorder(Paths.get(file), sampleRate, maxSamples);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(recorder).addPathPatterns("/api/users", "/api/users/**");
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        recorder.close();
+    }
+}
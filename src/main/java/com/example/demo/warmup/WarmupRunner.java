@@ -0,0 +1,308 @@
+package com.example.demo.warmup;
+
+import com.example.demo.controller.UserController;
+import com.example.demo.jfr.JfrJacksonHttpMessageConverter;
+import com.example.demo.jfr.JfrRequestInterceptor;
+import com.example.demo.model.BulkMutation;
+import com.example.demo.model.UserFilter;
+import com.example.demo.model.UserOperation;
+import com.example.demo.repo.BatchingUserLookup;
+import com.example.demo.repo.FakeRepo;
+import com.example.demo.service.UserServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * WarmupRunner gets the request path JIT-compiled before the application reports ready.
+ *
+ * It replays the request shapes recorded by {@link TrafficRecorder}, or a synthetic mix if
+ * there is no recording, as HTTP requests through Spring MVC's DispatcherServlet (via
+ * MockMvc): handler mapping, argument resolution, the JFR interceptor, the real
+ * UserController, UserServiceImpl and FakeRepo classes and the Jackson converter. Every
+ * request goes to a scratch repository created just for the warm-up, so real users are never
+ * read or changed. It then sends requests to the liveness probe on the real port, which
+ * warms Tomcat's connector and HTTP parsing without touching user data.
+ *
+ * Tomcat is already accepting connections while this runs. Spring Boot only reports the
+ * application ready once all runners are done, so load balancers must route by
+ * {@code /actuator/health/readiness} for real traffic to wait for the warm-up.
+ *
+ * Enable with {@code app.warmup.enabled=true}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "app.warmup.enabled", havingValue = "true")
+public class WarmupRunner implements ApplicationRunner {
+    private static final int SEED_USERS = 1000;
+    private static final int DEFAULT_LOOKUP_SIZE = 20;
+
+    // Used when nothing has been recorded yet: mostly single reads, like real traffic
+    private static final List<String> SYNTHETIC_MIX = Arrays.asList(
+            "GET /api/users/{id}", "GET /api/users/{id}", "GET /api/users/{id}", "GET /api/users/{id}",
+            "GET /api/users/{id}", "GET /api/users/{id}", "GET /api/users/{id}", "GET /api/users/{id}",
+            "GET /api/users?ids 20", "POST /api/users/lookup", "POST /api/users", "PUT /api/users/{id}",
+            "DELETE /api/users/{id}", "GET /api/users/stats", "POST /api/users/tx", "GET /api/users");
+
+    // Requests replay() knows how to send; recorded shapes of anything else are skipped
+    private static final Set<String> REPLAYABLE = Set.of(
+            "GET /api/users/{id}", "GET /api/users?ids", "POST /api/users/lookup", "GET /api/users",
+            "POST /api/users", "PUT /api/users/{id}", "DELETE /api/users/{id}", "GET /api/users/stats",
+            "POST /api/users/tx", "POST /api/users/bulk-mutate");
+
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
+    private final Path file;
+    private final int iterations;
+    private final long maxDurationMs;
+    private final int httpRequests;
+
+    public WarmupRunner(ObjectMapper objectMapper, Environment environment,
+                        @Value("${app.warmup.file:warmup/traffic.txt}") String file,
+                        @Value("${app.warmup.iterations:20000}") int iterations,
+                        @Value("${app.warmup.max-duration-ms:10000}") long maxDurationMs,
+                        @Value("${app.warmup.http-requests:2000}") int httpRequests) {
+        this.objectMapper = objectMapper;
+        this.environment = environment;
+        this.file = Paths.get(file);
+        this.iterations = iterations;
+        this.maxDurationMs = maxDurationMs;
+        this.httpRequests = httpRequests;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        List<String> shapes = loadShapes(file);
+        String source = "recorded traffic from " + file;
+        if (shapes.isEmpty()) {
+            shapes = SYNTHETIC_MIX;
+            source = "synthetic traffic";
+        }
+
+        FakeRepo scratchRepo = new FakeRepo();
+        // Quiet, so the warm-up doesn't print a line per replayed request
+        UserServiceImpl scratchService = new UserServiceImpl(scratchRepo);
+        scratchService.setVerbose(false);
+        BatchingUserLookup scratchLookup = new BatchingUserLookup(scratchRepo, false, 200);
+        UserController scratchController = new UserController(scratchService, scratchRepo, scratchLookup);
+        for (int i = 0; i < SEED_USERS; i++) {
+            scratchRepo.insertUser(scratchService.reserveId(), seedName(i), seedSurname(i));
+        }
+
+        // The same interceptor and converter JfrWebConfig installs in the real dispatcher
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(scratchController)
+                .setMessageConverters(new JfrJacksonHttpMessageConverter(objectMapper))
+                .addInterceptors(new JfrRequestInterceptor())
+                .build();
+
+        long[] latencies = new long[iterations];
+        int replayed = 0;
+        Random random = new Random(42);
+        long start = System.nanoTime();
+        long deadline = start + maxDurationMs * 1_000_000;
+        try {
+            while (replayed < iterations && System.nanoTime() < deadline) {
+                String shape = shapes.get(replayed % shapes.size());
+                long deletedId = request(shape).equals("DELETE /api/users/{id}") ? randomId(random) : 0;
+                RequestBuilder request = toRequest(shape, deletedId, random);
+
+                long requestStart = System.nanoTime();
+                mockMvc.perform(request).andReturn();
+                latencies[replayed++] = System.nanoTime() - requestStart;
+
+                // Put deleted seed users back, so later reads and edits still find them
+                if (deletedId > 0) {
+                    scratchRepo.insertUser(deletedId, seedName(deletedId - 1), seedSurname(deletedId - 1));
+                }
+            }
+        } finally {
+            scratchLookup.shutdown();
+        }
+        report(source, Arrays.copyOf(latencies, replayed), System.nanoTime() - start);
+
+        warmUpConnector(deadline);
+    }
+
+    /**
+     * Reads the recorded shapes, leaving out any this version can't replay so they don't
+     * count as requests.
+     */
+    static List<String> loadShapes(Path file) throws IOException {
+        List<String> shapes = new ArrayList<>();
+        if (!Files.isRegularFile(file)) {
+            return shapes;
+        }
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String shape = line.trim();
+            if (!shape.isEmpty() && REPLAYABLE.contains(request(shape))) {
+                shapes.add(shape);
+            }
+        }
+        return shapes;
+    }
+
+    // "GET /api/users?ids 20" -> "GET /api/users?ids"
+    static String request(String shape) {
+        String[] parts = shape.split(" ");
+        return parts.length > 1 ? parts[0] + " " + parts[1] : shape;
+    }
+
+    // "GET /api/users?ids 20" -> 20
+    static int lookupSize(String shape) {
+        String[] parts = shape.split(" ");
+        if (parts.length < 3) {
+            return DEFAULT_LOOKUP_SIZE;
+        }
+        try {
+            return Math.max(1, Math.min(1000, Integer.parseInt(parts[2])));
+        } catch (NumberFormatException e) {
+            return DEFAULT_LOOKUP_SIZE;
+        }
+    }
+
+    private RequestBuilder toRequest(String shape, long deletedId, Random random) throws IOException {
+        switch (request(shape)) {
+            case "GET /api/users/{id}":
+                return get("/api/users/{id}", randomId(random));
+            case "GET /api/users?ids":
+                StringBuilder ids = new StringBuilder();
+                for (int i = lookupSize(shape); i > 0; i--) {
+                    ids.append(randomId(random)).append(i > 1 ? "," : "");
+                }
+                return get("/api/users").param("ids", ids.toString());
+            case "POST /api/users/lookup":
+                long[] lookupIds = new long[lookupSize(shape)];
+                for (int i = 0; i < lookupIds.length; i++) {
+                    lookupIds[i] = randomId(random);
+                }
+                return json(post("/api/users/lookup"), lookupIds);
+            case "GET /api/users":
+                return get("/api/users");
+            case "POST /api/users":
+                return post("/api/users").param("name", "Warm").param("surname", "Up");
+            case "PUT /api/users/{id}":
+                return put("/api/users/{id}", randomId(random))
+                        .param("newName", "Warm").param("newSurname", "Up" + random.nextInt(50));
+            case "DELETE /api/users/{id}":
+                return delete("/api/users/{id}", deletedId);
+            case "GET /api/users/stats":
+                return get("/api/users/stats").param("top", "10");
+            case "POST /api/users/tx":
+                List<UserOperation> operations = new ArrayList<>();
+                operations.add(UserOperation.insert(0, "Warm", "Up"));
+                operations.add(UserOperation.edit(randomId(random), "Warm", "Up"));
+                return json(post("/api/users/tx"), operations);
+            case "POST /api/users/bulk-mutate":
+                // Renames one surname group to itself: matches and re-checks but changes nothing
+                String surname = "Up" + random.nextInt(50);
+                return json(post("/api/users/bulk-mutate"),
+                        BulkMutation.set(new UserFilter(null, surname, false), null, surname));
+            default:
+                throw new IllegalArgumentException("Not a replayable shape: " + shape);
+        }
+    }
+
+    private RequestBuilder json(MockHttpServletRequestBuilder builder, Object body) throws IOException {
+        return builder.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsBytes(body));
+    }
+
+    /**
+     * Sends requests to the liveness probe on the real port, so Tomcat's connector, request
+     * parsing and filter chain are compiled too. Stops at the warm-up deadline.
+     */
+    private void warmUpConnector(long deadline) {
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        if (port == null || port <= 0 || httpRequests <= 0) {
+            return;
+        }
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://127.0.0.1:" + port + "/actuator/health/liveness")).build();
+        long start = System.nanoTime();
+        int sent = 0;
+        try {
+            while (sent < httpRequests && System.nanoTime() < deadline) {
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+                sent++;
+            }
+        } catch (IOException e) {
+            System.out.println("Warm-up: stopped HTTP requests after " + sent + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("Warm-up: sent " + sent + " HTTP requests to port " + port
+                + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private long randomId(Random random) {
+        return 1 + random.nextInt(SEED_USERS);
+    }
+
+    private static String seedName(long index) {
+        return "Warm" + index;
+    }
+
+    private static String seedSurname(long index) {
+        return "Up" + (index % 50);
+    }
+
+    /**
+     * Compares the first and last slices of the replay: the first one is what the first real
+     * requests would have paid without warm-up, the last one what they pay now.
+     */
+    private void report(String source, long[] latencies, long totalNanos) {
+        System.out.println("Warm-up: replayed " + latencies.length + " requests of " + source
+                + " in " + totalNanos / 1_000_000 + " ms");
+        if (latencies.length < 10) {
+            return;
+        }
+
+        int slice = Math.max(10, Math.min(1000, latencies.length / 10));
+        long[] first = Arrays.copyOfRange(latencies, 0, slice);
+        long[] last = Arrays.copyOfRange(latencies, latencies.length - slice, latencies.length);
+        long coldP99 = percentile(first, 0.99);
+        long warmP99 = percentile(last, 0.99);
+        System.out.printf("Warm-up: p50 %d us -> %d us, p99 %d us -> %d us (first vs last %d requests, %.1fx lower p99)%n",
+                percentile(first, 0.50) / 1000, percentile(last, 0.50) / 1000,
+                coldP99 / 1000, warmP99 / 1000, slice, (double) coldP99 / Math.max(1, warmP99));
+    }
+
+    static long percentile(long[] values, double percentile) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demo.repo;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BatchingUserLookupTests {
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+    private BatchingUserLookup lookup;
+
+    @AfterEach
+    public void tearDown() {
+        callers.shutdownNow();
+        if (lookup != null) {
+            lookup.shutdown();
+        }
+    }
+
+    @Test
+    public void testConcurrentLookupsShareOneBatch() throws Exception {
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+        List<long[]> batches = new CopyOnWriteArrayList<>();
+
+        FakeRepo repo = new FakeRepo() {
+            @Override
+            public Map<Long, String> findUsersByIds(long[] ids) {
+                batches.add(ids.clone());
+                if (batches.size() == 1) {
+                    firstBatchStarted.countDown();
+                    await(releaseFirstBatch);
+                }
+                return super.findUsersByIds(ids);
+            }
+        };
+        for (long id = 1; id <= 8; id++) {
+            repo.insertUser(id, "Name" + id, "Surname");
+        }
+        lookup = new BatchingUserLookup(repo, true, 100);
+
+        // Hold the dispatcher in a first batch so the next lookups queue up behind it
+        Future<String> first = callers.submit(() -> lookup.findUserById(1L));
+        assertThat(firstBatchStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        List<Future<String>> queued = new ArrayList<>();
+        for (long id = 2; id <= 8; id++) {
+            long userId = id;
+            queued.add(callers.submit(() -> lookup.findUserById(userId)));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (lookup.pendingLookups() < 7 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        releaseFirstBatch.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("Name1 Surname");
+        for (int i = 0; i < queued.size(); i++) {
+            assertThat(queued.get(i).get(5, TimeUnit.SECONDS)).isEqualTo("Name" + (i + 2) + " Surname");
+        }
+        assertThat(batches).hasSize(2);
+        assertThat(batches.get(1)).containsExactlyInAnyOrder(2L, 3L, 4L, 5L, 6L, 7L, 8L);
+    }
+
+    @Test
+    public void testMissingUserInBatch() {
+        lookup = new BatchingUserLookup(new FakeRepo(), true, 100);
+        assertThat(lookup.findUserById(99L)).isEqualTo("User not found");
+    }
+
+    @Test
+    public void testBatchFailureReachesEveryCaller() {
+        FakeRepo repo = new FakeRepo() {
+            @Override
+            public Map<Long, String> findUsersByIds(long[] ids) {
+                throw new IllegalStateException("backend down");
+            }
+        };
+        lookup = new BatchingUserLookup(repo, true, 100);
+
+        assertThatThrownBy(() -> lookup.findUserById(1L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("backend down");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
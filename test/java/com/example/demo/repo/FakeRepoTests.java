@@ -1,15 +1,28 @@
 
 package com.example.demo.repo;
 
+import com.example.demo.model.BulkMutation;
 import com.example.demo.model.User;
+import com.example.demo.model.UserFilter;
+import com.example.demo.model.UserOperation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-@SpringBootTest
 public class FakeRepoTests {
 
     private FakeRepo fakeRepo;
@@ -87,4 +100,318 @@ public class FakeRepoTests {
         List<User> users = fakeRepo.getAllUsers();
         assertThat(users).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFindUsersByIds() {
+        fakeRepo.insertUser(1L, "John", "Doe");
+        fakeRepo.insertUser(2L, "Jane", "Smith");
+
+        Map<Long, String> users = fakeRepo.findUsersByIds(new long[]{2L, 1L});
+
+        assertThat(users).containsEntry(1L, "John Doe").containsEntry(2L, "Jane Smith");
+        assertThat(users.keySet()).containsExactly(2L, 1L);
+    }
+
+    @Test
+    public void testFindUsersByIdsSkipsMissingIds() {
+        fakeRepo.insertUser(1L, "John", "Doe");
+
+        Map<Long, String> users = fakeRepo.findUsersByIds(new long[]{1L, 99L});
+
+        assertThat(users).hasSize(1).containsEntry(1L, "John Doe");
+    }
+
+    @Test
+    public void testEditUser() {
+        fakeRepo.insertUser(1L, "John", "Doe");
+        String result = fakeRepo.editUser(1L, "Johnny", "Doe");
+        assertThat(result).isEqualTo("Johnny");
+        assertThat(fakeRepo.findUserById(1L)).isEqualTo("Johnny Doe");
+    }
+
+    @Test
+    public void testEditUserNotFound() {
+        String result = fakeRepo.editUser(99L, "John", "Doe");
+        assertThat(result).isEqualTo("User not found");
+    }
+
+    @Test
+    public void testEditDoesNotChangeReturnedUsers() {
+        fakeRepo.insertUser(1L, "John", "Doe");
+        List<User> before = fakeRepo.getAllUsers();
+
+        fakeRepo.editUser(1L, "Johnny", "Doe");
+
+        assertThat(before.get(0).getName()).isEqualTo("John");
+    }
+
+    @Test
+    public void testSnapshotDoesNotSeeLaterWrites() {
+        fakeRepo.insertUser(1L, "John", "Doe");
+
+        try (UserSnapshot snapshot = fakeRepo.openSnapshot()) {
+            fakeRepo.editUser(1L, "Johnny", "Doe");
+            fakeRepo.insertUser(2L, "Jane", "Smith");
+            fakeRepo.deleteUser(1L);
+
+            assertThat(snapshot.findUserById(1L)).isEqualTo("John Doe");
+            assertThat(snapshot.findUserById(2L)).isEqualTo("User not found");
+            assertThat(snapshot.getAllUsers()).extracting("name").containsExactly("John");
+        }
+
+        assertThat(fakeRepo.findUserById(1L)).isEqualTo("User not found");
+        assertThat(fakeRepo.findUserById(2L)).isEqualTo("Jane Smith");
+    }
+
+    @Test
+    public void testApplyTransaction() {
+        fakeRepo.insertUser(1L, "John", "Doe");
+
+        TransactionResult result = fakeRepo.applyTransaction(Arrays.asList(
+                UserOperation.insert(2L, "Jane", "Smith"),
+                UserOperation.edit(2L, "Janet", "Smith"),
+                UserOperation.delete(1L)));
+
+        assertThat(result.isCommitted()).isTrue();
+        assertThat(result.getResults()).containsExactly("Jane", "Janet", "John");
+        assertThat(fakeRepo.findUserById(1L)).isEqualTo("User not found");
+        assertThat(fakeRepo.findUserById(2L)).isEqualTo("Janet Smith");
+    }
+
+    @Test
+    public void testApplyTransactionRollsBackOnFailure() {
+        fakeRepo.insertUser(1L, "John", "Doe");
+
+        TransactionResult result = fakeRepo.applyTransaction(Arrays.asList(
+                UserOperation.edit(1L, "Johnny", "Doe"),
+                UserOperation.insert(2L, "Jane", "Smith"),
+                UserOperation.delete(99L)));
+
+        assertThat(result.isCommitted()).isFalse();
+        assertThat(result.getFailedOperation()).isEqualTo(2);
+        assertThat(fakeRepo.findUserById(1L)).isEqualTo("John Doe");
+        assertThat(fakeRepo.findUserById(2L)).isEqualTo("User not found");
+    }
+
+    @Test
+    public void testEditsWithoutSnapshotKeepOneVersion() {
+        fakeRepo.insertUser(1L, "John", "Doe");
+        fakeRepo.editUser(1L, "Johnny", "Doe");
+        fakeRepo.editUser(1L, "Jon", "Doe");
+
+        assertThat(fakeRepo.head(1L).older).isNull();
+        assertThat(fakeRepo.hasHistory()).isFalse();
+    }
+
+    @Test
+    public void testDeletedUserIsRemoved() {
+        fakeRepo.insertUser(1L, "John", "Doe");
+        fakeRepo.deleteUser(1L);
+
+        assertThat(fakeRepo.heads().containsKey(1L)).isFalse();
+        assertThat(fakeRepo.hasHistory()).isFalse();
+    }
+
+    @Test
+    public void testClosingLastSnapshotCollects() {
+        fakeRepo.insertUser(1L, "John", "Doe");
+        fakeRepo.insertUser(2L, "Jane", "Doe");
+
+        UserSnapshot snapshot = fakeRepo.openSnapshot();
+        fakeRepo.editUser(1L, "Johnny", "Doe");
+        fakeRepo.deleteUser(2L);
+        assertThat(fakeRepo.head(1L).older).isNotNull();
+        assertThat(fakeRepo.heads().containsKey(2L)).isTrue();
+
+        snapshot.close();
+
+        assertThat(fakeRepo.head(1L).older).isNull();
+        assertThat(fakeRepo.heads().containsKey(2L)).isFalse();
+        assertThat(fakeRepo.hasHistory()).isFalse();
+    }
+
+    @Test
+    public void testSnapshotClosedDuringWriteIsCollectedWhenWriterUnlocks() throws Exception {
+        fakeRepo.insertUser(1L, "John", "Doe");
+        UserSnapshot snapshot = fakeRepo.openSnapshot();
+        fakeRepo.editUser(1L, "Johnny", "Doe");
+
+        // Holds the commit lock inside applyTransaction until released; the transaction then
+        // rolls back, so the writer itself never publishes or collects
+        CountDownLatch writerHoldsLock = new CountDownLatch(1);
+        CountDownLatch releaseWriter = new CountDownLatch(1);
+        UserOperation blockingEdit = new UserOperation(UserOperation.Type.EDIT, 99L, "Ghost", "User") {
+            @Override
+            public String getName() {
+                writerHoldsLock.countDown();
+                try {
+                    releaseWriter.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getName();
+            }
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<TransactionResult> writer = executor.submit(
+                    () -> fakeRepo.applyTransaction(Arrays.asList(blockingEdit)));
+            writerHoldsLock.await();
+
+            snapshot.close();
+            assertThat(fakeRepo.head(1L).older).isNotNull();
+
+            releaseWriter.countDown();
+            assertThat(writer.get().isCommitted()).isFalse();
+            assertThat(fakeRepo.head(1L).older).isNull();
+            assertThat(fakeRepo.hasHistory()).isFalse();
+        } finally {
+            releaseWriter.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testReadersNeverSeeHalfAppliedTransactions() throws Exception {
+        for (long id = 1; id <= 10; id++) {
+            fakeRepo.insertUser(id, "User" + id, "Gen0");
+        }
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Every transaction moves all ten users to the next generation at once
+            Future<?> writer = executor.submit(() -> {
+                for (int generation = 1; generation <= 2000; generation++) {
+                    List<UserOperation> operations = new ArrayList<>();
+                    for (long id = 1; id <= 10; id++) {
+                        operations.add(UserOperation.edit(id, "User" + id, "Gen" + generation));
+                    }
+                    fakeRepo.applyTransaction(operations);
+                }
+            });
+
+            int reads = 0;
+            while (!writer.isDone() || reads == 0) {
+                List<User> users = fakeRepo.getAllUsers();
+                assertThat(users).hasSize(10);
+                Set<String> generations = new HashSet<>();
+                for (User user : users) {
+                    generations.add(user.getSurname());
+                }
+                assertThat(generations).hasSize(1);
+                reads++;
+            }
+            writer.get();
+            assertThat(fakeRepo.getAllUsers()).extracting("surname").contains("Gen2000");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testStatisticsFollowInsertEditAndDelete() {
+        fakeRepo.insertUser(1L, "John", "Doe");
+        fakeRepo.insertUser(2L, "Jane", "Doe");
+        fakeRepo.insertUser(3L, "Adam", "Smith");
+        fakeRepo.editUser(3L, "Adam", "Doe");
+        fakeRepo.deleteUser(1L);
+
+        UserStatistics statistics = fakeRepo.getStatistics();
+
+        assertThat(statistics.totalUsers()).isEqualTo(2);
+        assertThat(statistics.countBySurname("Doe")).isEqualTo(2);
+        assertThat(statistics.countBySurname("Smith")).isZero();
+        assertThat(statistics.countsByInitial()).containsEntry("A", 1L).containsEntry("J", 1L).hasSize(2);
+    }
+
+    @Test
+    public void testTopSurnames() {
+        fakeRepo.insertUser(1L, "John", "Doe");
+        fakeRepo.insertUser(2L, "Jane", "Doe");
+        fakeRepo.insertUser(3L, "Adam", "Smith");
+        fakeRepo.insertUser(4L, "Eve", "Brown");
+        fakeRepo.insertUser(5L, "Bob", "Smith");
+        fakeRepo.insertUser(6L, "Tom", "Smith");
+
+        Map<String, Long> top = fakeRepo.getStatistics().topSurnames(2);
+
+        assertThat(top.keySet()).containsExactly("Smith", "Doe");
+        assertThat(top).containsEntry("Smith", 3L).containsEntry("Doe", 2L);
+    }
+
+    @Test
+    public void testBulkDeleteBySurname() {
+        fakeRepo.insertUser(1L, "John", "Doe");
+        fakeRepo.insertUser(2L, "Jane", "Doe");
+        fakeRepo.insertUser(3L, "Adam", "Smith");
+
+        long affected = fakeRepo.bulkMutate(BulkMutation.delete(new UserFilter(null, "Doe", false)));
+
+        assertThat(affected).isEqualTo(2);
+        assertThat(fakeRepo.getAllUsers()).extracting("name").containsExactly("Adam");
+    }
+
+    @Test
+    public void testBulkSetNormalizesSurname() {
+        fakeRepo.insertUser(1L, "John", "doe");
+        fakeRepo.insertUser(2L, "Jane", "DOE");
+        fakeRepo.insertUser(3L, "Adam", "Doe");
+
+        long affected = fakeRepo.bulkMutate(BulkMutation.set(new UserFilter(null, "doe", true), null, "Doe"));
+
+        assertThat(affected).isEqualTo(2);
+        assertThat(fakeRepo.findUserById(1L)).isEqualTo("John Doe");
+        assertThat(fakeRepo.findUserById(2L)).isEqualTo("Jane Doe");
+        assertThat(fakeRepo.getStatistics().countBySurname("Doe")).isEqualTo(3);
+    }
+
+    @Test
+    public void testQueuedWriterGoesBetweenBulkBatches() throws Exception {
+        int users = 2000;
+        for (long id = 1; id <= users; id++) {
+            fakeRepo.insertUser(id, "User" + id, "Doe");
+        }
+
+        CountDownLatch bulkHoldsLock = new CountDownLatch(1);
+        AtomicBoolean writerStarted = new AtomicBoolean();
+        AtomicBoolean writerDone = new AtomicBoolean();
+        AtomicBoolean writerWentFirst = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            try {
+                bulkHoldsLock.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            writerStarted.set(true);
+            fakeRepo.insertUser(1_000_000L, "New", "Smith");
+            writerDone.set(true);
+        });
+
+        // Called once per user while matching, then again for each user as its batch commits
+        AtomicInteger calls = new AtomicInteger();
+        UserFilter filter = new UserFilter(null, "Doe", false) {
+            @Override
+            public boolean matches(String name, String surname) {
+                int call = calls.incrementAndGet();
+                if (call == users + 1) {
+                    // First batch holds the commit lock: let the writer queue up behind it
+                    bulkHoldsLock.countDown();
+                    while (!writerStarted.get() || writer.getState() != Thread.State.WAITING) {
+                        Thread.onSpinWait();
+                    }
+                } else if (call == users + 65) {
+                    writerWentFirst.set(writerDone.get());
+                }
+                return super.matches(name, surname);
+            }
+        };
+
+        writer.start();
+        long affected = fakeRepo.bulkMutate(BulkMutation.delete(filter));
+        writer.join(5000);
+
+        assertThat(affected).isEqualTo((long) users);
+        assertThat(writerWentFirst.get()).isTrue();
+        assertThat(fakeRepo.findUserById(1_000_000L)).isEqualTo("New Smith");
+        assertThat(fakeRepo.getStatistics().totalUsers()).isEqualTo(1L);
+    }
+}
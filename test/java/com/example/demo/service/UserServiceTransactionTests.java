@@ -0,0 +1,84 @@
+package com.example.demo.service;
+
+import com.example.demo.model.UserOperation;
+import com.example.demo.repo.FakeRepo;
+import com.example.demo.repo.TransactionResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UserServiceTransactionTests {
+
+    private FakeRepo fakeRepo;
+    private UserServiceImpl userService;
+    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+    private final PrintStream originalOut = System.out;
+
+    @BeforeEach
+    public void setUp() {
+        fakeRepo = new FakeRepo();
+        userService = new UserServiceImpl(fakeRepo);
+        System.setOut(new PrintStream(outContent));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Test
+    public void testTransactionInsertIgnoresExplicitId() {
+        UserOperation insert = UserOperation.insert(7, "Jane", "Smith");
+
+        TransactionResult result = userService.applyTransaction(Arrays.asList(insert));
+
+        assertThat(result.isCommitted()).isTrue();
+        assertThat(insert.getId()).isEqualTo(1L);
+        assertThat(fakeRepo.findUserById(1)).isEqualTo("Jane Smith");
+        assertThat(fakeRepo.findUserById(7)).isEqualTo("User not found");
+    }
+
+    @Test
+    public void testAddUserAfterTransactionInsert() {
+        List<UserOperation> operations = Arrays.asList(
+                UserOperation.insert(5, "Jane", "Smith"),
+                UserOperation.insert(0, "John", "Smith"));
+        assertThat(userService.applyTransaction(operations).isCommitted()).isTrue();
+
+        userService.addUser("Alice", "Doe");
+
+        assertThat(outContent.toString()).contains("Alice added with ID: 3");
+        assertThat(fakeRepo.findUserById(3)).isEqualTo("Alice Doe");
+        assertThat(fakeRepo.getStatistics().totalUsers()).isEqualTo(3L);
+    }
+
+    @Test
+    public void testReservedIdAfterTransactionInsertIsFree() {
+        userService.applyTransaction(Arrays.asList(UserOperation.insert(2, "Jane", "Smith")));
+
+        long id = userService.reserveId();
+
+        assertThat(fakeRepo.insertUser(id, "John", "Doe")).isEqualTo("John");
+    }
+
+    @Test
+    public void testTransactionRejectsBlankNames() {
+        fakeRepo.insertUser(userService.reserveId(), "John", "Doe");
+
+        TransactionResult result = userService.applyTransaction(Arrays.asList(
+                UserOperation.insert(0, "Jane", "Smith"),
+                UserOperation.edit(1, "  ", "Doe")));
+
+        assertThat(result.isCommitted()).isFalse();
+        assertThat(result.getFailedOperation()).isEqualTo(1);
+        assertThat(fakeRepo.findUserById(1)).isEqualTo("John Doe");
+        assertThat(fakeRepo.getStatistics().totalUsers()).isEqualTo(1L);
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.demo.tcp;
+
+import com.example.demo.repo.FakeRepo;
+import com.example.demo.service.UserServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UserTcpServerTests {
+
+    private FakeRepo fakeRepo;
+    private UserTcpServer server;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        fakeRepo = new FakeRepo();
+        startServer(fakeRepo);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        server.stop();
+    }
+
+    @Test
+    public void testAddGetEditRemove() throws IOException {
+        try (UserTcpClient client = new UserTcpClient("localhost", server.getPort())) {
+            long id = client.addUser("John", "Doe");
+            assertThat(id).isEqualTo(1L);
+            assertThat(client.getUser(id)).isEqualTo("John Doe");
+
+            assertThat(client.editUser(id, "Jane", "Smith")).isTrue();
+            assertThat(client.getUser(id)).isEqualTo("Jane Smith");
+
+            assertThat(client.removeUser(id)).isTrue();
+            assertThat(client.getUser(id)).isNull();
+            assertThat(client.removeUser(id)).isFalse();
+            assertThat(client.editUser(id, "Jane", "Smith")).isFalse();
+        }
+    }
+
+    @Test
+    public void testAddRejectsBlankName() throws IOException {
+        try (UserTcpClient client = new UserTcpClient("localhost", server.getPort())) {
+            assertThat(client.addUser(" ", "Doe")).isEqualTo(-1L);
+        }
+    }
+
+    @Test
+    public void testPipelinedGetUsersSpanningSeveralWindows() throws IOException {
+        for (long id = 1; id <= 500; id++) {
+            fakeRepo.insertUser(id, "User" + id, "Doe");
+        }
+        long[] ids = new long[1000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i + 1;
+        }
+
+        try (UserTcpClient client = new UserTcpClient("localhost", server.getPort())) {
+            String[] names = client.getUsers(ids);
+
+            assertThat(names.length).isEqualTo(1000);
+            assertThat(names[0]).isEqualTo("User1 Doe");
+            assertThat(names[256]).isEqualTo("User257 Doe");
+            assertThat(names[499]).isEqualTo("User500 Doe");
+            assertThat(names[500]).isNull();
+            assertThat(names[999]).isNull();
+        }
+    }
+
+    @Test
+    public void testFrameSplitAcrossReads() throws Exception {
+        fakeRepo.insertUser(7, "John", "Doe");
+        byte[] request = getRequest(7);
+
+        try (Socket socket = connect()) {
+            OutputStream out = socket.getOutputStream();
+            out.write(request, 0, 3);
+            out.flush();
+            Thread.sleep(100);
+            out.write(request, 3, 5);
+            out.flush();
+            Thread.sleep(100);
+            out.write(request, 8, request.length - 8);
+            out.flush();
+
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            int length = in.readInt();
+            assertThat(in.readByte()).isEqualTo(UserProtocol.STATUS_OK);
+            byte[] record = new byte[length - 1];
+            in.readFully(record);
+            ByteBuffer body = ByteBuffer.wrap(record);
+            assertThat(UserProtocol.getString(body)).isEqualTo("John");
+            assertThat(UserProtocol.getString(body)).isEqualTo("Doe");
+        }
+    }
+
+    @Test
+    public void testInvalidLengthClosesConnection() throws IOException {
+        try (Socket socket = connect()) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeInt(UserProtocol.MAX_REQUEST_SIZE + 1);
+            out.flush();
+
+            assertThat(socket.getInputStream().read()).isEqualTo(-1);
+        }
+
+        // Other connections are unaffected
+        try (UserTcpClient client = new UserTcpClient("localhost", server.getPort())) {
+            assertThat(client.addUser("John", "Doe")).isEqualTo(1L);
+        }
+    }
+
+    @Test
+    public void testFailingRequestClosesOnlyItsConnection() throws Exception {
+        server.stop();
+        startServer(new FakeRepo() {
+            @Override
+            public byte[] findUserRecord(long id) {
+                if (id == 13) {
+                    throw new IllegalStateException("Broken record");
+                }
+                return super.findUserRecord(id);
+            }
+        });
+
+        try (Socket socket = connect()) {
+            socket.getOutputStream().write(getRequest(13));
+
+            assertThat(socket.getInputStream().read()).isEqualTo(-1);
+        }
+
+        try (UserTcpClient client = new UserTcpClient("localhost", server.getPort())) {
+            long id = client.addUser("John", "Doe");
+            assertThat(client.getUser(id)).isEqualTo("John Doe");
+        }
+    }
+
+    @Test
+    public void testConnectionsOverTheLimitAreClosed() throws Exception {
+        server.stop();
+        startServer(fakeRepo, 2);
+
+        try (UserTcpClient first = new UserTcpClient("localhost", server.getPort());
+             UserTcpClient second = new UserTcpClient("localhost", server.getPort())) {
+            assertThat(first.addUser("John", "Doe")).isEqualTo(1L);
+            assertThat(second.addUser("Jane", "Doe")).isEqualTo(2L);
+
+            try (Socket third = connect()) {
+                assertThat(third.getInputStream().read()).isEqualTo(-1);
+            }
+            assertThat(first.getUser(2)).isEqualTo("Jane Doe");
+        }
+
+        // Once the server has seen the others close, there is room again
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (true) {
+            try (UserTcpClient client = new UserTcpClient("localhost", server.getPort())) {
+                assertThat(client.getUser(1)).isEqualTo("John Doe");
+                break;
+            } catch (IOException e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private void startServer(FakeRepo repo) throws IOException {
+        startServer(repo, 100);
+    }
+
+    private void startServer(FakeRepo repo, int maxConnections) throws IOException {
+        server = new UserTcpServer(repo, new UserServiceImpl(repo), "127.0.0.1", 0, 0, maxConnections);
+        server.start();
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket("localhost", server.getPort());
+        socket.setSoTimeout(5000);
+        return socket;
+    }
+
+    private byte[] getRequest(long id) {
+        ByteBuffer buffer = ByteBuffer.allocate(UserProtocol.requestSize(null, null));
+        UserProtocol.writeRequest(buffer, UserProtocol.OP_GET, id, null, null);
+        return buffer.array();
+    }
+}
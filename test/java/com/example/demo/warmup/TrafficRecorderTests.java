@@ -0,0 +1,82 @@
+package com.example.demo.warmup;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TrafficRecorderTests {
+
+    private Path directory;
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("traffic");
+        file = directory.resolve("traffic.txt");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void testRecordedShapesAreReplayed() throws IOException {
+        TrafficRecorder recorder = new TrafficRecorder(file, 1.0, 100);
+        MockHttpServletRequest multiGet = request("GET", "/api/users");
+        multiGet.setParameter("ids", "1,2,3");
+        recorder.afterCompletion(multiGet, null, null, null);
+        recorder.afterCompletion(request("GET", "/api/users/{id}"), null, null, null);
+        recorder.afterCompletion(request("POST", "/api/users/lookup"), null, null, null);
+        recorder.afterCompletion(request("POST", "/api/users/bulk-mutate"), null, null, null);
+        recorder.close();
+
+        List<String> shapes = WarmupRunner.loadShapes(file);
+
+        assertThat(shapes).containsExactly("GET /api/users?ids 3", "GET /api/users/{id}",
+                "POST /api/users/lookup", "POST /api/users/bulk-mutate");
+        assertThat(WarmupRunner.request(shapes.get(0))).isEqualTo("GET /api/users?ids");
+        assertThat(WarmupRunner.lookupSize(shapes.get(0))).isEqualTo(3);
+        assertThat(WarmupRunner.request(shapes.get(1))).isEqualTo("GET /api/users/{id}");
+    }
+
+    @Test
+    public void testUnknownShapesAreSkipped() throws IOException {
+        TrafficRecorder recorder = new TrafficRecorder(file, 1.0, 100);
+        recorder.afterCompletion(request("PATCH", "/api/users/{id}"), null, null, null);
+        recorder.afterCompletion(request("POST", "/api/jfr/start"), null, null, null);
+        recorder.afterCompletion(request("DELETE", "/api/users/{id}"), null, null, null);
+        recorder.close();
+
+        assertThat(WarmupRunner.loadShapes(file)).containsExactly("DELETE /api/users/{id}");
+    }
+
+    @Test
+    public void testNoRecordingLoadsNoShapes() throws IOException {
+        new TrafficRecorder(file, 1.0, 100).close();
+
+        assertThat(Files.exists(file)).isFalse();
+        assertThat(WarmupRunner.loadShapes(file)).isEmpty();
+    }
+
+    private MockHttpServletRequest request(String method, String pattern) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, pattern);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        return request;
+    }
+}